@@ -0,0 +1,54 @@
+package com.example;
+
+import org.jgrapht.Graph;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * One generated comparison, shared by the benchmark methods of a trial. The
+ * machines are built once per trial from a fixed seed, so every fork and every
+ * run measures the same input.
+ */
+@State(Scope.Benchmark)
+public class ComparisonState {
+
+    @Param({"8", "16", "32"})
+    public int states;
+
+    @Param({"4"})
+    public int alphabet;
+
+    // Share of transitions that differ between the machines, in percent.
+    @Param({"10", "30"})
+    public int changedPercent;
+
+    // Of the changed transitions: relabeled and rewired ones in percent, the rest removed.
+    @Param({"40"})
+    public int relabelPercent;
+
+    @Param({"40"})
+    public int rewirePercent;
+
+    @Param({"42"})
+    public long seed;
+
+    Graph<String, TransitionEdge> reference;
+    Graph<String, TransitionEdge> subject;
+    GraphSnapshot referenceSnapshot;
+    GraphSnapshot subjectSnapshot;
+    GraphEditDistanceCalculator calculator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticAutomata automata = SyntheticAutomata.create(seed, states, alphabet, changedPercent / 100.0,
+            relabelPercent / 100.0, rewirePercent / 100.0);
+        reference = automata.getReference();
+        subject = automata.getSubject();
+        referenceSnapshot = GraphSnapshot.of(reference);
+        subjectSnapshot = GraphSnapshot.of(subject);
+        calculator = new GraphEditDistanceCalculator();
+    }
+}
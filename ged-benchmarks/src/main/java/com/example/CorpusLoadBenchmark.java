@@ -0,0 +1,79 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jgrapht.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading a corpus of machines (machines x states x inputs edges, one million
+ * with the defaults) from the binary format, against building the same machines
+ * through JGraphT and snapshotting them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CorpusLoadBenchmark {
+
+    @Param({"1000"})
+    public int machines;
+
+    @Param({"50"})
+    public int states;
+
+    @Param({"20"})
+    public int alphabet;
+
+    private List<Graph<String, TransitionEdge>> graphs;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        graphs = new ArrayList<>();
+        for (int i = 0; i < machines; i++) {
+            graphs.add(SyntheticAutomata.create(i, states, alphabet, 0.1).getSubject());
+        }
+        file = Files.createTempFile("corpus", ".ged");
+        AutomatonFormat.write(file, graphs);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public List<GraphSnapshot> readMapped() {
+        return AutomatonFormat.read(file);
+    }
+
+    // The graphs already exist here; only the conversion into snapshots is measured.
+    @Benchmark
+    public List<GraphSnapshot> snapshotGraphs() {
+        List<GraphSnapshot> snapshots = new ArrayList<>(graphs.size());
+        for (Graph<String, TransitionEdge> graph : graphs) {
+            snapshots.add(GraphSnapshot.of(graph));
+        }
+        return snapshots;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The public edge cost functions over every pair of changed edges, on the
+ * JGraphT graphs and on the snapshots, and the cost matrix that replaces them
+ * during the search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CostFunctionBenchmark {
+
+    private List<TransitionEdge> referenceEdges;
+    private List<TransitionEdge> subjectEdges;
+    private SearchContext context;
+
+    @Setup(Level.Trial)
+    public void setUp(ComparisonState state) {
+        context = state.calculator.createContext(state.referenceSnapshot, state.subjectSnapshot);
+        referenceEdges = new ArrayList<>(context.getReferenceEdges());
+        subjectEdges = new ArrayList<>(context.getSubjectEdges());
+    }
+
+    @Benchmark
+    public double graphCostFunctions(ComparisonState state) {
+        double sum = 0.0;
+        for (TransitionEdge refEdge : referenceEdges) {
+            for (TransitionEdge subjEdge : subjectEdges) {
+                sum += state.calculator.edgeSubstitutionCost(state.reference, state.subject, refEdge, subjEdge);
+                sum += state.calculator.edgeReassignmentCost(state.reference, state.subject, refEdge, subjEdge);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double snapshotCostFunctions(ComparisonState state) {
+        double sum = 0.0;
+        for (int r = 0; r < context.getReferenceEdgeCount(); r++) {
+            int refEdge = context.referenceEdgeId(r);
+            for (int s = 0; s < context.getSubjectEdgeCount(); s++) {
+                int subjEdge = context.subjectEdgeId(s);
+                sum += state.calculator.edgeSubstitutionCost(state.referenceSnapshot, refEdge, state.subjectSnapshot, subjEdge);
+                sum += state.calculator.edgeReassignmentCost(state.referenceSnapshot, refEdge, state.subjectSnapshot, subjEdge);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public CostMatrix buildCostMatrix(ComparisonState state) {
+        return CostMatrix.build(context, state.calculator);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Complete comparisons with the default configuration: throughput, and latency
+ * percentiles from the sampled mode.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EditDistanceBenchmark {
+
+    @Benchmark
+    public double computeEditDistance(ComparisonState state) {
+        return state.calculator.computeEditDistance(state.reference, state.subject);
+    }
+
+    // Without the conversion of the graphs into snapshots.
+    @Benchmark
+    public double computeEditDistanceOnSnapshots(ComparisonState state) {
+        return state.calculator.computeEditDistance(state.referenceSnapshot, state.subjectSnapshot);
+    }
+
+    @Benchmark
+    public GraphMatchResult computeDetailedEditDistance(ComparisonState state) {
+        return state.calculator.computeDetailedEditDistance(state.reference, state.subject);
+    }
+}
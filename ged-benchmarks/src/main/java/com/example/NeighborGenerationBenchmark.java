@@ -0,0 +1,72 @@
+package com.example;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Expansion of one search state, the inner loop of every search engine: the
+ * root of the whole comparison and a state halfway down the greedy path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NeighborGenerationBenchmark {
+
+    @Param({"FULL", "FIXED_ORDER"})
+    public BranchingMode branchingMode;
+
+    private GraphEditDistanceCalculator calculator;
+    private SearchContext context;
+    private EditState root;
+    private EditState halfway;
+
+    @Setup(Level.Trial)
+    public void setUp(ComparisonState state) {
+        calculator = new GraphEditDistanceCalculator();
+        calculator.setBranchingMode(branchingMode);
+        context = calculator.createContext(state.referenceSnapshot, state.subjectSnapshot);
+        context.setEstimator(calculator.getHeuristic().prepare(context, calculator));
+        root = calculator.initializeState(context);
+        halfway = root;
+        int depth = (context.getReferenceEdgeCount() + context.getSubjectEdgeCount()) / 2;
+        for (int i = 0; i < depth; i++) {
+            List<EditState> children = calculator.generateNeighbors(halfway, context);
+            if (children.isEmpty()) {
+                break;
+            }
+            EditState best = children.get(0);
+            for (EditState child : children) {
+                if (child.getEstimatedTotalCost() < best.getEstimatedTotalCost()) {
+                    best = child;
+                }
+            }
+            halfway = best;
+        }
+    }
+
+    @Benchmark
+    public List<EditState> expandRoot() {
+        return calculator.generateNeighbors(root, context);
+    }
+
+    @Benchmark
+    public List<EditState> expandHalfway() {
+        return calculator.generateNeighbors(halfway, context);
+    }
+}
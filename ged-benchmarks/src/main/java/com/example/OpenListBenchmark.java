@@ -0,0 +1,68 @@
+package com.example;
+
+import java.util.Random;
+
+/**
+ * Compares the binary heap and the bucket open list.
+ *
+ * Not a JMH benchmark; after packaging, run with {@code java -cp
+ * ged-benchmarks/target/benchmarks.jar com.example.OpenListBenchmark}. The first part replays an
+ * A*-like workload directly on the open lists, the second times complete
+ * uniform-cost searches on synthetic automata, where the open list dominates.
+ */
+public class OpenListBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int WORKLOAD_POLLS = 2_000_000;
+
+    public static void main(String[] args) {
+        System.out.println("-- synthetic workload: 2M polls, 4 children per poll --");
+        for (int round = 0; round < ROUNDS; round++) {
+            long heap = workload(new BinaryHeapOpenList());
+            long bucket = workload(new BucketOpenList());
+            System.out.printf("round %d: binary heap %6d ms, bucket %6d ms%n", round, heap / 1_000_000, bucket / 1_000_000);
+        }
+
+        System.out.println("-- uniform-cost search, fixed-order branching --");
+        SyntheticAutomata automata = SyntheticAutomata.create(42, 12, 4, 0.5);
+        for (int round = 0; round < ROUNDS; round++) {
+            long heap = search(automata, OpenListType.BINARY_HEAP);
+            long bucket = search(automata, OpenListType.BUCKET);
+            System.out.printf("round %d: binary heap %6d ms, bucket %6d ms%n", round, heap / 1_000_000, bucket / 1_000_000);
+        }
+    }
+
+    // Pops states and pushes children whose f grows by 0-3, as a consistent heuristic would.
+    // States are allocated up front, one per f-value, so only the open list is measured.
+    private static long workload(OpenList openList) {
+        Random random = new Random(7);
+        SearchContext context = new SearchContext(null, null, new int[0], new int[0]);
+        EditState[] byF = new EditState[WORKLOAD_POLLS * 4];
+        for (int f = 0; f < byF.length; f++) {
+            byF[f] = EditState.initial(context, f);
+        }
+        long start = System.nanoTime();
+        openList.add(byF[0]);
+        for (int i = 0; i < WORKLOAD_POLLS && !openList.isEmpty(); i++) {
+            int f = (int) openList.poll().getEstimatedTotalCost();
+            if (openList.size() < 200_000) {
+                for (int c = 0; c < 4; c++) {
+                    openList.add(byF[f + random.nextInt(4)]);
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long search(SyntheticAutomata automata, OpenListType type) {
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        calculator.setHeuristic(new ZeroHeuristic());
+        calculator.setBranchingMode(BranchingMode.FIXED_ORDER);
+        calculator.setOpenListType(type);
+        // One search over the whole comparison, not many small ones.
+        calculator.setKernelization(false);
+        long start = System.nanoTime();
+        calculator.computeEditDistance(automata.getReference(), automata.getSubject());
+        return System.nanoTime() - start;
+    }
+}
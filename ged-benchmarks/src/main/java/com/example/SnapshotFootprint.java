@@ -0,0 +1,54 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jgrapht.Graph;
+
+/**
+ * Compares the heap taken by a 10k-edge automaton as a JGraphT graph and as a
+ * {@link GraphSnapshot}.
+ *
+ * Not a JMH benchmark; after packaging, run with {@code java -cp
+ * ged-benchmarks/target/benchmarks.jar com.example.SnapshotFootprint}. Several copies are kept alive
+ * and the heap is measured after garbage collection, so the numbers are
+ * averages per copy. The snapshot shares vertex names and labels with its graph.
+ */
+public class SnapshotFootprint {
+
+    private static final int COPIES = 10;
+
+    public static void main(String[] args) {
+        long start = usedHeap();
+        List<Graph<String, TransitionEdge>> graphs = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) {
+            graphs.add(SyntheticAutomata.create(1, 2500, 4, 0.5).getReference());
+        }
+        long graphBytes = (usedHeap() - start) / COPIES;
+
+        start = usedHeap();
+        List<GraphSnapshot> snapshots = new ArrayList<>();
+        for (Graph<String, TransitionEdge> graph : graphs) {
+            snapshots.add(GraphSnapshot.of(graph));
+        }
+        long snapshotBytes = (usedHeap() - start) / COPIES;
+
+        System.out.printf("%d edges, %d vertices%n", graphs.get(0).edgeSet().size(), graphs.get(0).vertexSet().size());
+        System.out.printf("JGraphT graph: %6d KiB%n", graphBytes / 1024);
+        System.out.printf("snapshot:      %6d KiB (estimated %d KiB)%n", snapshotBytes / 1024,
+            snapshots.get(0).getMemoryFootprintBytes() / 1024);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
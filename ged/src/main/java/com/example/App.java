@@ -11,14 +11,11 @@ public class App {
         // Instantiate the GraphEditDistanceCalculator.
         GraphEditDistanceCalculator gedCalculator = new GraphEditDistanceCalculator();
 
-        // Compute the overall edit distance.
-        double distance = gedCalculator.computeEditDistance(referenceGraph, subjectGraph);
-        
-        // Compute the detailed match result (which includes the edit operations).
+        // Compute the detailed match result (the edit distance and the edit operations) in one search.
         GraphMatchResult result = gedCalculator.computeDetailedEditDistance(referenceGraph, subjectGraph);
         
         // Print the results to the terminal.
-        System.out.println("Computed Edit Distance: " + distance);
+        System.out.println("Computed Edit Distance: " + result.getTotalCost());
         System.out.println("Detailed Match Operations:");
         for (EditOperation op : result.getOperations()) {
             System.out.println(op);
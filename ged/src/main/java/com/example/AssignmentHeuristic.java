@@ -0,0 +1,109 @@
+package com.example;
+
+/**
+ * Admissible lower bound from the bipartite (LSAP) relaxation of the remaining edges.
+ *
+ * For n reference and m subject edges, an (n+m) x (n+m) matrix is built once per
+ * comparison. Rows are reference edges followed by one insertion row per subject edge;
+ * columns are subject edges followed by one deletion column per reference edge:
+ *
+ * <pre>
+ *              subject s            deletion of r'
+ * reference r  pair cost (r, s)     DELETION_COST if r == r', else forbidden
+ * insertion s' INSERTION_COST if s == s', else forbidden     0
+ * </pre>
+ *
+ * The pair cost is the cheaper of edge substitution and edge reassignment, as
+ * both are offered by the search. The matrix is solved once with the
+ * {@link HungarianAlgorithm}. Its dual potentials stay feasible for every
+ * sub-matrix, so the sum of the potentials of the rows and columns that belong
+ * to the still unmatched edges is a lower bound for their completion.
+ *
+ * This makes the estimate incremental: each operation removes a fixed set of rows
+ * and columns, and the child's estimate is the parent's minus their potentials.
+ * Dual feasibility also bounds that drop by the operation's cost, so the heuristic
+ * is consistent, and at the root it equals the assignment optimum.
+ */
+public class AssignmentHeuristic implements Heuristic {
+
+    // Stands in for an impossible cell; large, but finite to keep the arithmetic exact.
+    private static final double FORBIDDEN = 1.0e9;
+
+    @Override
+    public Estimator prepare(SearchContext context, GraphEditDistanceCalculator calculator) {
+        int n = context.getReferenceEdgeCount();
+        int m = context.getSubjectEdgeCount();
+        int size = n + m;
+        CostMatrix costMatrix = context.getCostMatrix();
+        double[][] cost = new double[size][size];
+        for (int r = 0; r < n; r++) {
+            for (int s = 0; s < m; s++) {
+                cost[r][s] = costMatrix.pairCost(r, s);
+            }
+            for (int d = 0; d < n; d++) {
+                cost[r][m + d] = d == r ? calculator.getDeletionCost() : FORBIDDEN;
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            for (int s = 0; s < m; s++) {
+                cost[n + i][s] = i == s ? calculator.getInsertionCost() : FORBIDDEN;
+            }
+            // Insertion rows against deletion columns stay 0.
+        }
+
+        HungarianAlgorithm.Assignment assignment = HungarianAlgorithm.solve(cost);
+        return new DualEstimator(n, m, assignment.getRowPotentials(), assignment.getColumnPotentials());
+    }
+
+    private static final class DualEstimator implements Estimator {
+        private final int n;
+        private final int m;
+        private final double[] rowPotentials;
+        private final double[] columnPotentials;
+
+        DualEstimator(int n, int m, double[] rowPotentials, double[] columnPotentials) {
+            this.n = n;
+            this.m = m;
+            this.rowPotentials = rowPotentials;
+            this.columnPotentials = columnPotentials;
+        }
+
+        @Override
+        public double initialEstimate() {
+            double sum = 0.0;
+            for (double u : rowPotentials) {
+                sum += u;
+            }
+            for (double v : columnPotentials) {
+                sum += v;
+            }
+            return sum;
+        }
+
+        // Removes row r, column s, the insertion row of s and the deletion column of r.
+        @Override
+        public double afterMatch(double parentEstimate, int referenceIndex, int subjectIndex) {
+            return parentEstimate
+                - rowPotentials[referenceIndex] - columnPotentials[subjectIndex]
+                - rowPotentials[n + subjectIndex] - columnPotentials[m + referenceIndex];
+        }
+
+        // Removes row r and the deletion column of r.
+        @Override
+        public double afterDeletion(double parentEstimate, int referenceIndex) {
+            return parentEstimate - rowPotentials[referenceIndex] - columnPotentials[m + referenceIndex];
+        }
+
+        // Removes column s and the insertion row of s.
+        @Override
+        public double afterInsertion(double parentEstimate, int subjectIndex) {
+            return parentEstimate - columnPotentials[subjectIndex] - rowPotentials[n + subjectIndex];
+        }
+
+        // Integral costs give integral potentials, and every estimate is a sum of them.
+        @Override
+        public boolean isIntegral() {
+            return CostMatrix.allIntegral(rowPotentials) && CostMatrix.allIntegral(columnPotentials);
+        }
+    }
+}
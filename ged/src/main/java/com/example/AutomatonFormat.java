@@ -0,0 +1,207 @@
+package com.example;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jgrapht.Graph;
+
+/**
+ * Compact binary file format for corpora of automata, read back by memory
+ * mapping the file straight into {@link GraphSnapshot}s.
+ *
+ * All numbers are little-endian ints. A file holds a header (magic, version,
+ * automaton count) followed by one block per automaton:
+ * <pre>
+ *   vertexCount, labelCount, edgeCount
+ *   string table: vertexCount + labelCount strings (byte length, UTF-8 bytes),
+ *                 padded to a multiple of 4 bytes
+ *   source[edgeCount], target[edgeCount], input[edgeCount], output[edgeCount]
+ *   type[edgeCount] (DiffType ordinal, one byte each), padded to a multiple of 4
+ * </pre>
+ * Endpoints index the vertex names and labels the label table, so each edge
+ * column is copied into the snapshot's array with one bulk read, and no
+ * TransitionEdge or JGraphT graph is created. Snapshots read from a file create
+ * their TransitionEdges only when asked for one (to render an operation).
+ * Strings repeated across the automata of one file are shared.
+ *
+ * A mapped file must be smaller than 2 GiB; larger corpora are split over
+ * several files.
+ */
+public final class AutomatonFormat {
+
+    // "GEDA"
+    private static final int MAGIC = 0x41444547;
+    private static final int VERSION = 1;
+
+    private AutomatonFormat() {
+    }
+
+    public static void write(Path file, Graph<String, TransitionEdge> graph) {
+        write(file, Collections.singletonList(graph));
+    }
+
+    public static void write(Path file, Collection<Graph<String, TransitionEdge>> graphs) {
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            LittleEndianWriter out = new LittleEndianWriter(stream);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(graphs.size());
+            for (Graph<String, TransitionEdge> graph : graphs) {
+                writeSnapshot(out, GraphSnapshot.of(graph));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write automata to " + file, e);
+        }
+    }
+
+    private static void writeSnapshot(LittleEndianWriter out, GraphSnapshot snapshot) throws IOException {
+        int edgeCount = snapshot.getEdgeCount();
+        out.writeInt(snapshot.getVertexCount());
+        out.writeInt(snapshot.getLabelCount());
+        out.writeInt(edgeCount);
+        int tableBytes = 0;
+        for (int v = 0; v < snapshot.getVertexCount(); v++) {
+            tableBytes += out.writeString(snapshot.vertexName(v));
+        }
+        for (int l = 0; l < snapshot.getLabelCount(); l++) {
+            tableBytes += out.writeString(snapshot.label(l));
+        }
+        out.pad(tableBytes);
+        for (int e = 0; e < edgeCount; e++) {
+            out.writeInt(snapshot.source(e));
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            out.writeInt(snapshot.target(e));
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            out.writeInt(snapshot.input(e));
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            out.writeInt(snapshot.output(e));
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            out.write(snapshot.type(e).ordinal());
+        }
+        out.pad(edgeCount);
+    }
+
+    // Every automaton of the file, in the order written.
+    public static List<GraphSnapshot> read(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Automaton file " + file + " exceeds 2 GiB");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not an automaton file: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported automaton file version " + version + ": " + file);
+            }
+            int count = buffer.getInt();
+            List<GraphSnapshot> snapshots = new ArrayList<>(count);
+            Map<String, String> strings = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                snapshots.add(readSnapshot(buffer, strings));
+            }
+            return snapshots;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read automata from " + file, e);
+        }
+    }
+
+    private static GraphSnapshot readSnapshot(ByteBuffer buffer, Map<String, String> strings) {
+        int vertexCount = buffer.getInt();
+        int labelCount = buffer.getInt();
+        int edgeCount = buffer.getInt();
+        int tableStart = buffer.position();
+        String[] vertexNames = new String[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            vertexNames[v] = readString(buffer, strings);
+        }
+        String[] labels = new String[labelCount];
+        for (int l = 0; l < labelCount; l++) {
+            labels[l] = readString(buffer, strings);
+        }
+        skipPadding(buffer, buffer.position() - tableStart);
+
+        IntBuffer ints = buffer.asIntBuffer();
+        int[] source = new int[edgeCount];
+        int[] target = new int[edgeCount];
+        int[] input = new int[edgeCount];
+        int[] output = new int[edgeCount];
+        ints.get(source).get(target).get(input).get(output);
+        buffer.position(buffer.position() + 16 * edgeCount);
+        byte[] types = new byte[edgeCount];
+        buffer.get(types);
+        skipPadding(buffer, edgeCount);
+        return new GraphSnapshot(vertexNames, labels, source, target, input, output, types, null);
+    }
+
+    private static String readString(ByteBuffer buffer, Map<String, String> strings) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        String string = new String(bytes, StandardCharsets.UTF_8);
+        String shared = strings.putIfAbsent(string, string);
+        return shared != null ? shared : string;
+    }
+
+    private static void skipPadding(ByteBuffer buffer, int written) {
+        buffer.position(buffer.position() + padding(written));
+    }
+
+    private static int padding(int written) {
+        return (4 - (written & 3)) & 3;
+    }
+
+    // DataOutputStream writes big-endian; the reader maps the file little-endian.
+    private static final class LittleEndianWriter {
+        private final DataOutputStream out;
+
+        LittleEndianWriter(OutputStream stream) {
+            this.out = new DataOutputStream(stream);
+        }
+
+        void writeInt(int value) throws IOException {
+            out.writeInt(Integer.reverseBytes(value));
+        }
+
+        void write(int value) throws IOException {
+            out.write(value);
+        }
+
+        // Returns the number of bytes written.
+        int writeString(String string) throws IOException {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            out.write(bytes);
+            return 4 + bytes.length;
+        }
+
+        void pad(int written) throws IOException {
+            for (int i = padding(written); i > 0; i--) {
+                out.write(0);
+            }
+        }
+    }
+}
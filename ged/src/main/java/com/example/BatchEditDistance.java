@@ -0,0 +1,232 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.jgrapht.Graph;
+
+/**
+ * Many comparisons at once: distance matrices, k nearest neighbours and
+ * threshold queries over a corpus of automata.
+ *
+ * Comparisons run in parallel on a ForkJoinPool. Before any search starts, every
+ * pair gets the cheap {@link EdgeSummary} lower bound; pairs whose bound already
+ * exceeds the threshold, or the k-th best distance found so far, are skipped.
+ * Nearest-neighbour queries visit the corpus in order of increasing bound, so the
+ * k-th best distance tightens early.
+ *
+ * The calculator is shared by all tasks and must not be reconfigured while a
+ * batch runs.
+ */
+public class BatchEditDistance {
+
+    private final GraphEditDistanceCalculator calculator;
+    private final ForkJoinPool pool;
+
+    public BatchEditDistance(GraphEditDistanceCalculator calculator) {
+        this(calculator, ForkJoinPool.commonPool());
+    }
+
+    public BatchEditDistance(GraphEditDistanceCalculator calculator, ForkJoinPool pool) {
+        this.calculator = calculator;
+        this.pool = pool;
+    }
+
+    /**
+     * Distance of every reference graph (row) to every subject graph (column).
+     */
+    public double[][] distanceMatrix(List<Graph<String, TransitionEdge>> references,
+                                     List<Graph<String, TransitionEdge>> subjects) {
+        return distanceMatrix(references, subjects, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Distance matrix in which pairs that are provably farther apart than
+     * maxDistance are not computed but set to positive infinity.
+     */
+    public double[][] distanceMatrix(List<Graph<String, TransitionEdge>> references,
+                                     List<Graph<String, TransitionEdge>> subjects,
+                                     double maxDistance) {
+        List<EdgeSummary> referenceSummaries = summarize(references);
+        List<EdgeSummary> subjectSummaries = summarize(subjects);
+        // Each graph takes part in many comparisons, so it is copied into a snapshot once.
+        List<GraphSnapshot> referenceSnapshots = snapshot(references);
+        List<GraphSnapshot> subjectSnapshots = snapshot(subjects);
+        double[][] distances = new double[references.size()][subjects.size()];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < references.size(); i++) {
+            for (int j = 0; j < subjects.size(); j++) {
+                final int row = i;
+                final int column = j;
+                if (EdgeSummary.lowerBound(referenceSummaries.get(i), subjectSummaries.get(j), calculator) > maxDistance) {
+                    distances[row][column] = Double.POSITIVE_INFINITY;
+                    continue;
+                }
+                tasks.add(() -> {
+                    double distance = calculator.computeEditDistance(referenceSnapshots.get(row), subjectSnapshots.get(column));
+                    distances[row][column] = distance > maxDistance ? Double.POSITIVE_INFINITY : distance;
+                    return null;
+                });
+            }
+        }
+        runAll(tasks);
+        return distances;
+    }
+
+    /**
+     * The k corpus graphs closest to the query (the query is the reference graph),
+     * nearest first.
+     */
+    public List<Neighbor> nearest(Graph<String, TransitionEdge> query,
+                                  List<Graph<String, TransitionEdge>> corpus, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive, got " + k);
+        }
+        List<Candidate> candidates = candidates(query, corpus);
+        GraphSnapshot querySnapshot = GraphSnapshot.of(query);
+        candidates.sort(Comparator.comparingDouble(candidate -> candidate.lowerBound));
+
+        // The k best so far, worst on top.
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(
+            Comparator.comparingDouble((Neighbor neighbor) -> neighbor.getDistance()).reversed());
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            tasks.add(() -> {
+                synchronized (best) {
+                    if (best.size() == k && candidate.lowerBound >= best.peek().getDistance()) {
+                        return null;
+                    }
+                }
+                GraphMatchResult result = calculator.computeDetailedEditDistance(querySnapshot,
+                    GraphSnapshot.of(corpus.get(candidate.index)));
+                synchronized (best) {
+                    best.add(new Neighbor(candidate.index, result));
+                    if (best.size() > k) {
+                        best.poll();
+                    }
+                }
+                return null;
+            });
+        }
+        runAll(tasks);
+        return sorted(new ArrayList<>(best));
+    }
+
+    /**
+     * Every corpus graph within maxDistance of the query, nearest first.
+     */
+    public List<Neighbor> withinDistance(Graph<String, TransitionEdge> query,
+                                         List<Graph<String, TransitionEdge>> corpus, double maxDistance) {
+        List<Neighbor> found = new ArrayList<>();
+        GraphSnapshot querySnapshot = GraphSnapshot.of(query);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Candidate candidate : candidates(query, corpus)) {
+            if (candidate.lowerBound > maxDistance) {
+                continue;
+            }
+            tasks.add(() -> {
+                GraphMatchResult result = calculator.computeDetailedEditDistance(querySnapshot,
+                    GraphSnapshot.of(corpus.get(candidate.index)));
+                if (result.getTotalCost() <= maxDistance) {
+                    synchronized (found) {
+                        found.add(new Neighbor(candidate.index, result));
+                    }
+                }
+                return null;
+            });
+        }
+        runAll(tasks);
+        return sorted(found);
+    }
+
+    private List<Candidate> candidates(Graph<String, TransitionEdge> query, List<Graph<String, TransitionEdge>> corpus) {
+        EdgeSummary querySummary = EdgeSummary.of(query);
+        List<EdgeSummary> corpusSummaries = summarize(corpus);
+        List<Candidate> candidates = new ArrayList<>(corpus.size());
+        for (int i = 0; i < corpus.size(); i++) {
+            candidates.add(new Candidate(i, EdgeSummary.lowerBound(querySummary, corpusSummaries.get(i), calculator)));
+        }
+        return candidates;
+    }
+
+    private static List<EdgeSummary> summarize(List<Graph<String, TransitionEdge>> graphs) {
+        List<EdgeSummary> summaries = new ArrayList<>(graphs.size());
+        for (Graph<String, TransitionEdge> graph : graphs) {
+            summaries.add(EdgeSummary.of(graph));
+        }
+        return summaries;
+    }
+
+    private static List<GraphSnapshot> snapshot(List<Graph<String, TransitionEdge>> graphs) {
+        List<GraphSnapshot> snapshots = new ArrayList<>(graphs.size());
+        for (Graph<String, TransitionEdge> graph : graphs) {
+            snapshots.add(GraphSnapshot.of(graph));
+        }
+        return snapshots;
+    }
+
+    private static List<Neighbor> sorted(List<Neighbor> neighbors) {
+        neighbors.sort(Comparator.comparingDouble(Neighbor::getDistance).thenComparingInt(Neighbor::getIndex));
+        return neighbors;
+    }
+
+    private void runAll(List<Callable<Void>> tasks) {
+        for (Future<Void> future : pool.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for comparisons", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Comparison failed", e.getCause());
+            }
+        }
+    }
+
+    // Corpus position with its lower bound.
+    private static final class Candidate {
+        private final int index;
+        private final double lowerBound;
+
+        Candidate(int index, double lowerBound) {
+            this.index = index;
+            this.lowerBound = lowerBound;
+        }
+    }
+
+    /**
+     * A corpus graph found by a query: its position in the corpus and the match.
+     */
+    public static final class Neighbor {
+        private final int index;
+        private final GraphMatchResult result;
+
+        public Neighbor(int index, GraphMatchResult result) {
+            this.index = index;
+            this.result = result;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public GraphMatchResult getResult() {
+            return result;
+        }
+
+        public double getDistance() {
+            return result.getTotalCost();
+        }
+
+        @Override
+        public String toString() {
+            return "Neighbor{index=" + index + ", distance=" + result.getTotalCost() + '}';
+        }
+    }
+}
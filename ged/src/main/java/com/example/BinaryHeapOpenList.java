@@ -0,0 +1,63 @@
+package com.example;
+
+import java.util.PriorityQueue;
+
+/**
+ * Open list on a {@link PriorityQueue}: O(log n) per operation, any cost model.
+ * Among equal f-values the state closer to completion goes first.
+ *
+ * With a weight w other than 1, states are ordered by g + w*h instead (weighted A*).
+ */
+public class BinaryHeapOpenList implements OpenList {
+
+    private final PriorityQueue<EditState> queue;
+
+    public BinaryHeapOpenList() {
+        this(1.0);
+    }
+
+    public BinaryHeapOpenList(double weight) {
+        if (weight == 1.0) {
+            queue = new PriorityQueue<>((s1, s2) -> {
+                int byTotal = Double.compare(s1.getEstimatedTotalCost(), s2.getEstimatedTotalCost());
+                return byTotal != 0 ? byTotal : Double.compare(s1.getHeuristicCost(), s2.getHeuristicCost());
+            });
+        } else {
+            queue = new PriorityQueue<>((s1, s2) -> {
+                int byTotal = Double.compare(
+                    s1.getCumulativeCost() + weight * Math.max(0.0, s1.getHeuristicCost()),
+                    s2.getCumulativeCost() + weight * Math.max(0.0, s2.getHeuristicCost()));
+                return byTotal != 0 ? byTotal : Double.compare(s1.getHeuristicCost(), s2.getHeuristicCost());
+            });
+        }
+    }
+
+    @Override
+    public void add(EditState state) {
+        queue.add(state);
+    }
+
+    @Override
+    public EditState poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public double lowestEstimatedTotalCost() {
+        double lowest = Double.POSITIVE_INFINITY;
+        for (EditState state : queue) {
+            lowest = Math.min(lowest, state.getEstimatedTotalCost());
+        }
+        return lowest;
+    }
+}
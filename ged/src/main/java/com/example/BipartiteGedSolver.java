@@ -0,0 +1,205 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Bipartite (Riesen-Bunke) edit distance: the edit path is read off one linear
+ * sum assignment instead of being searched for.
+ *
+ * The classic formulation is an (n+m) x (n+m) matrix of substitutions, deletions on
+ * a diagonal block and insertions on another. Only its n reference rows carry real
+ * choices, so it is solved in the equivalent rectangular form: every reference edge
+ * picks either one subject edge, at the pair cost, or its own deletion column, at
+ * DELETION_COST + INSERTION_COST; subject edges nobody picks are inserted, which
+ * adds (m - n) * INSERTION_COST to the assignment cost. Only the cost matrix's
+ * non-dominated candidate pairs are kept, so the problem is sparse, and it is
+ * solved by shortest augmenting paths (Dijkstra over the sparse rows with
+ * Jonker-Volgenant style potentials), one augmentation per reference edge.
+ *
+ * The edit path is optimal for the assignment; with purely edge-local costs like the
+ * calculator's, that is the edit distance itself, otherwise an upper bound.
+ */
+public class BipartiteGedSolver {
+
+    private static final int UNASSIGNED = -1;
+
+    private final int referenceCount;
+    private final int subjectCount;
+
+    // Sparse rows: columns and costs of the options of each reference edge.
+    // Column j < m is subject edge j, column m + r is the deletion of reference edge r.
+    private final int[][] rowColumns;
+    private final double[][] rowCosts;
+
+    public BipartiteGedSolver(CostMatrix costs, int referenceCount, int subjectCount,
+                              double deletionCost, double insertionCost) {
+        this(subjectCount, candidateRows(costs, referenceCount), candidateCosts(costs, referenceCount),
+            deletionCost + insertionCost);
+    }
+
+    /**
+     * Assignment over explicit sparse rows: per reference edge, the subject edges it
+     * may be matched with and what each match costs. Deleting the reference edge
+     * and inserting its counterpart costs deleteAndInsert.
+     */
+    BipartiteGedSolver(int subjectCount, int[][] candidates, double[][] candidateCosts, double deleteAndInsert) {
+        this.referenceCount = candidates.length;
+        this.subjectCount = subjectCount;
+        this.rowColumns = new int[referenceCount][];
+        this.rowCosts = new double[referenceCount][];
+        for (int r = 0; r < referenceCount; r++) {
+            int size = candidates[r].length + 1;
+            rowColumns[r] = Arrays.copyOf(candidates[r], size);
+            rowCosts[r] = Arrays.copyOf(candidateCosts[r], size);
+            rowColumns[r][size - 1] = subjectCount + r;
+            rowCosts[r][size - 1] = deleteAndInsert;
+        }
+    }
+
+    private static int[][] candidateRows(CostMatrix costs, int referenceCount) {
+        int[][] rows = new int[referenceCount][];
+        for (int r = 0; r < referenceCount; r++) {
+            rows[r] = costs.candidates(r);
+        }
+        return rows;
+    }
+
+    private static double[][] candidateCosts(CostMatrix costs, int referenceCount) {
+        double[][] rows = new double[referenceCount][];
+        for (int r = 0; r < referenceCount; r++) {
+            int[] candidates = costs.candidates(r);
+            rows[r] = new double[candidates.length];
+            for (int k = 0; k < candidates.length; k++) {
+                rows[r][k] = costs.pairCost(r, candidates[k]);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Solves the assignment. Returns, per reference edge, the index of its matched
+     * subject edge, or -1 if it is deleted.
+     */
+    public int[] solve() {
+        int n = referenceCount;
+        int columnCount = subjectCount + n;
+        double[] rowPotential = new double[n];
+        double[] columnPotential = new double[columnCount];
+        int[] rowOfColumn = new int[columnCount];
+        int[] columnOfRow = new int[n];
+        Arrays.fill(rowOfColumn, UNASSIGNED);
+
+        double[] distance = new double[columnCount];
+        int[] predecessorRow = new int[columnCount];
+        boolean[] finalized = new boolean[columnCount];
+        double[] rowDistance = new double[n];
+        int[] touchedColumns = new int[columnCount];
+        int[] touchedRows = new int[n];
+
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(rowDistance, Double.POSITIVE_INFINITY);
+
+        for (int start = 0; start < n; start++) {
+            PriorityQueue<long[]> heap = new PriorityQueue<>((a, b) -> Double.compare(
+                Double.longBitsToDouble(a[0]), Double.longBitsToDouble(b[0])));
+            int columnsTouched = 0;
+            int rowsTouched = 0;
+            rowDistance[start] = 0.0;
+            touchedRows[rowsTouched++] = start;
+            columnsTouched = relax(start, 0.0, rowPotential, columnPotential, distance, predecessorRow,
+                finalized, heap, touchedColumns, columnsTouched);
+
+            int freeColumn = UNASSIGNED;
+            double shortest = 0.0;
+            while (!heap.isEmpty()) {
+                long[] entry = heap.poll();
+                int column = (int) entry[1];
+                double d = Double.longBitsToDouble(entry[0]);
+                if (finalized[column] || d > distance[column]) {
+                    continue;
+                }
+                finalized[column] = true;
+                int row = rowOfColumn[column];
+                if (row == UNASSIGNED) {
+                    freeColumn = column;
+                    shortest = d;
+                    break;
+                }
+                // Matched edges are tight, so the path continues from the row at the same distance.
+                rowDistance[row] = d;
+                touchedRows[rowsTouched++] = row;
+                columnsTouched = relax(row, d, rowPotential, columnPotential, distance, predecessorRow,
+                    finalized, heap, touchedColumns, columnsTouched);
+            }
+            if (freeColumn == UNASSIGNED) {
+                // Cannot happen: every row owns its deletion column.
+                throw new IllegalStateException("No augmenting path for reference edge " + start);
+            }
+
+            // Johnson-style update with distances capped at the shortest path length keeps
+            // all reduced costs non-negative and makes the augmenting path tight.
+            for (int i = 0; i < rowsTouched; i++) {
+                int row = touchedRows[i];
+                rowPotential[row] -= Math.min(rowDistance[row], shortest) - shortest;
+            }
+            for (int i = 0; i < columnsTouched; i++) {
+                int column = touchedColumns[i];
+                columnPotential[column] += Math.min(distance[column], shortest) - shortest;
+            }
+            // Untouched rows and columns implicitly shift by -shortest / +shortest, which
+            // leaves their reduced costs unchanged; the touched ones were adjusted relative to that.
+
+            // Flip the augmenting path.
+            int column = freeColumn;
+            while (true) {
+                int row = predecessorRow[column];
+                int previous = row == start ? UNASSIGNED : columnOfRow[row];
+                rowOfColumn[column] = row;
+                columnOfRow[row] = column;
+                if (previous == UNASSIGNED) {
+                    break;
+                }
+                column = previous;
+            }
+
+            for (int i = 0; i < columnsTouched; i++) {
+                int c = touchedColumns[i];
+                distance[c] = Double.POSITIVE_INFINITY;
+                finalized[c] = false;
+            }
+            for (int i = 0; i < rowsTouched; i++) {
+                rowDistance[touchedRows[i]] = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        int[] subjectOfReference = new int[n];
+        for (int r = 0; r < n; r++) {
+            subjectOfReference[r] = columnOfRow[r] < subjectCount ? columnOfRow[r] : UNASSIGNED;
+        }
+        return subjectOfReference;
+    }
+
+    private int relax(int row, double rowDist, double[] rowPotential, double[] columnPotential,
+                      double[] distance, int[] predecessorRow, boolean[] finalized,
+                      PriorityQueue<long[]> heap, int[] touchedColumns, int columnsTouched) {
+        int[] columns = rowColumns[row];
+        double[] costs = rowCosts[row];
+        for (int k = 0; k < columns.length; k++) {
+            int column = columns[k];
+            if (finalized[column]) {
+                continue;
+            }
+            double d = rowDist + costs[k] - rowPotential[row] - columnPotential[column];
+            if (d < distance[column]) {
+                if (distance[column] == Double.POSITIVE_INFINITY) {
+                    touchedColumns[columnsTouched++] = column;
+                }
+                distance[column] = d;
+                predecessorRow[column] = row;
+                heap.add(new long[] {Double.doubleToLongBits(d), column});
+            }
+        }
+        return columnsTouched;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example;
+
+/**
+ * How the A* search expands a state into its neighbors.
+ */
+public enum BranchingMode {
+    /**
+     * Every unmatched reference edge against every unmatched subject edge,
+     * plus every single deletion and insertion: O(n*m) children per state.
+     */
+    FULL,
+
+    /**
+     * The classic GED search tree: the next reference edge in a fixed order is
+     * matched with each unmatched subject edge or deleted, and the remaining
+     * subject edges are inserted in bulk at the end. Depth n, about m + 1
+     * children per state, same optimal cost as FULL.
+     */
+    FIXED_ORDER,
+}
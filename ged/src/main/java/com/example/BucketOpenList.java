@@ -0,0 +1,89 @@
+package com.example;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Open list for integral cost models: one stack per integer f-value.
+ *
+ * Adding is O(1) and polling is O(1) amortized, because with a consistent heuristic
+ * the lowest non-empty bucket only moves upwards. Within a bucket states come out
+ * LIFO, which favors the most recently generated and hence deeper states and so
+ * reaches a goal sooner among equally good candidates.
+ */
+public class BucketOpenList implements OpenList {
+
+    // buckets.get(i) holds the states with f == base + i.
+    private final List<ArrayDeque<EditState>> buckets = new ArrayList<>();
+    private long base;
+    private int lowest;
+    private int size;
+
+    @Override
+    public void add(EditState state) {
+        double f = state.getEstimatedTotalCost();
+        if (f != Math.rint(f)) {
+            throw new IllegalStateException("Bucket open list needs integral f-values, got " + f
+                + "; use OpenListType.BINARY_HEAP for this cost model");
+        }
+        long key = (long) f;
+        if (buckets.isEmpty()) {
+            base = key;
+        } else if (key < base) {
+            // Only possible with an inconsistent heuristic: make room below.
+            int shift = (int) (base - key);
+            for (int i = 0; i < shift; i++) {
+                buckets.add(0, null);
+            }
+            base = key;
+            lowest += shift;
+        }
+        int index = (int) (key - base);
+        while (buckets.size() <= index) {
+            buckets.add(null);
+        }
+        ArrayDeque<EditState> bucket = buckets.get(index);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            buckets.set(index, bucket);
+        }
+        bucket.push(state);
+        if (index < lowest) {
+            lowest = index;
+        }
+        size++;
+    }
+
+    @Override
+    public EditState poll() {
+        if (size == 0) {
+            return null;
+        }
+        while (buckets.get(lowest) == null || buckets.get(lowest).isEmpty()) {
+            lowest++;
+        }
+        size--;
+        return buckets.get(lowest).pop();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double lowestEstimatedTotalCost() {
+        for (int i = lowest; size > 0 && i < buckets.size(); i++) {
+            if (buckets.get(i) != null && !buckets.get(i).isEmpty()) {
+                return base + i;
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
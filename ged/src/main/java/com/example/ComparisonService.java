@@ -0,0 +1,181 @@
+package com.example;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.jgrapht.Graph;
+
+/**
+ * Asynchronous front end of a calculator for request-serving code: every
+ * comparison runs on an executor and is handed back as a CompletableFuture.
+ *
+ * A request may carry a deadline. Once it passes, the search stops at its next
+ * budget check and the future completes with the best edit path found so far,
+ * reported as not proven optimal, exactly as for the calculator's own time
+ * budget. A request still waiting for admission at its deadline fails with a
+ * TimeoutException instead. Cancelling the future stops its search as well.
+ *
+ * Admission control bounds the searches running at once by their estimated
+ * state-space size: the number of leaves of the fixed-order search tree of every
+ * independent part of the comparison. A request holds that many units of the
+ * service's capacity, at most all of them, while it searches, and waits in
+ * arrival order until they are free. Small comparisons therefore run side by
+ * side while a huge one runs alone.
+ *
+ * By default the service runs every request on its own virtual thread when the
+ * JVM has them (Java 21 and later) and on a cached pool of daemon threads
+ * otherwise. The calculator must not be reconfigured while requests run.
+ */
+public class ComparisonService implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+
+    // How often a request waiting for admission checks for cancellation.
+    private static final long ADMISSION_POLL_MILLIS = 10;
+
+    private final GraphEditDistanceCalculator calculator;
+    private final Executor executor;
+    // Shut down on close if the service created it.
+    private final ExecutorService ownedExecutor;
+    private final int capacity;
+    private final Semaphore admission;
+
+    public ComparisonService(GraphEditDistanceCalculator calculator) {
+        this(calculator, newDefaultExecutor(), DEFAULT_CAPACITY, true);
+    }
+
+    // Runs requests on the given executor, which the caller keeps ownership of.
+    public ComparisonService(GraphEditDistanceCalculator calculator, Executor executor, int capacity) {
+        this(calculator, executor, capacity, false);
+    }
+
+    private ComparisonService(GraphEditDistanceCalculator calculator, Executor executor, int capacity, boolean owned) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        this.calculator = calculator;
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+        this.capacity = capacity;
+        // Fair, so that a large request is not overtaken by small ones forever.
+        this.admission = new Semaphore(capacity, true);
+    }
+
+    /**
+     * A virtual-thread-per-task executor if the running JVM provides one, looked
+     * up reflectively as the build targets Java 17; otherwise a cached pool of
+     * daemon threads.
+     */
+    public static ExecutorService newDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "ged-comparison");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public CompletableFuture<GraphMatchResult> submit(Graph<String, TransitionEdge> referenceGraph,
+                                                      Graph<String, TransitionEdge> subjectGraph) {
+        return submit(referenceGraph, subjectGraph, 0);
+    }
+
+    // With a deadline the given number of milliseconds after submission; 0 for none.
+    public CompletableFuture<GraphMatchResult> submit(Graph<String, TransitionEdge> referenceGraph,
+                                                      Graph<String, TransitionEdge> subjectGraph,
+                                                      long deadlineMillis) {
+        SearchControl control = SearchControl.withTimeout(deadlineMillis);
+        // Snapshotting happens on the executor as well, not on the caller's thread.
+        return submit(control, () -> calculator.createContext(GraphSnapshot.of(referenceGraph),
+            GraphSnapshot.of(subjectGraph)));
+    }
+
+    public CompletableFuture<GraphMatchResult> submit(GraphSnapshot reference, GraphSnapshot subject,
+                                                      long deadlineMillis) {
+        SearchControl control = SearchControl.withTimeout(deadlineMillis);
+        return submit(control, () -> calculator.createContext(reference, subject));
+    }
+
+    private CompletableFuture<GraphMatchResult> submit(SearchControl control, Supplier<SearchContext> contexts) {
+        CompletableFuture<GraphMatchResult> future = new CompletableFuture<>();
+        future.whenComplete((result, failure) -> {
+            if (failure instanceof CancellationException) {
+                control.cancel();
+            }
+        });
+        try {
+            executor.execute(() -> run(future, control, contexts));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void run(CompletableFuture<GraphMatchResult> future, SearchControl control,
+                     Supplier<SearchContext> contexts) {
+        if (future.isDone()) {
+            return;
+        }
+        try {
+            SearchContext context = contexts.get();
+            context.setControl(control);
+            int units = (int) Math.max(1, Math.min(calculator.estimateStateSpace(context), capacity));
+            if (!admit(units, control)) {
+                future.completeExceptionally(control.isCancelled() ? new CancellationException()
+                    : new TimeoutException("Deadline passed before the comparison was admitted"));
+                return;
+            }
+            GraphMatchResult result;
+            try {
+                result = calculator.solveAll(context, true, null);
+            } finally {
+                // Released first, so that a caller woken by the future sees the capacity back.
+                admission.release(units);
+            }
+            future.complete(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+
+    // Waits for the units; false if cancelled or past the deadline first.
+    private boolean admit(int units, SearchControl control) throws InterruptedException {
+        while (!admission.tryAcquire(units, ADMISSION_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (control.isStopped()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Capacity not held by running searches at the moment.
+    public int getAvailableCapacity() {
+        return admission.availablePermits();
+    }
+
+    // Shuts down the executor if the service created it; requests already running complete.
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example;
+
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+import org.jgrapht.graph.AsUnmodifiableGraph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+
+/**
+ * Repeated comparison of one reference automaton against a subject automaton
+ * that changes by a few transitions at a time.
+ *
+ * The session keeps its own copy of the subject graph, to which edge additions,
+ * removals and relabellings are applied. The next {@link #getResult()} then
+ * compares the changed subject again, but every independent part of the
+ * comparison (see {@link GraphEditDistanceCalculator#setKernelization}) whose
+ * edges are all unchanged is taken over from the previous result without a
+ * search. The parts that did change are searched with the previous mapping of
+ * their edges as the initial incumbent, so states that cannot beat it are pruned
+ * from the start. Results are exactly those of
+ * {@link GraphEditDistanceCalculator#computeDetailedEditDistance}: optimal
+ * whenever the configured search is.
+ *
+ * The cost matrix is rebuilt for every result; label distances come from the
+ * calculator's {@link LabelDistanceService} and are mostly cached by then. The
+ * vertex-mapping engine has no independent parts and always compares from
+ * scratch. The calculator must not be reconfigured while a session is in use,
+ * and a session is not thread-safe.
+ */
+public class ComparisonSession {
+
+    private final GraphEditDistanceCalculator calculator;
+    private final GraphSnapshot reference;
+    private final Graph<String, TransitionEdge> subjectGraph;
+    private final ComponentCache cache = new ComponentCache();
+
+    // Result for the current subject graph; null after a change.
+    private GraphMatchResult result;
+
+    public ComparisonSession(GraphEditDistanceCalculator calculator, Graph<String, TransitionEdge> referenceGraph,
+                             Graph<String, TransitionEdge> subjectGraph) {
+        this.calculator = calculator;
+        this.reference = GraphSnapshot.of(referenceGraph);
+        this.subjectGraph = GraphTypeBuilder
+            .<String, TransitionEdge>directed()
+            .allowingMultipleEdges(true)
+            .allowingSelfLoops(true)
+            .edgeClass(TransitionEdge.class)
+            .buildGraph();
+        // Same edge objects: an edge that is never touched stays recognizable.
+        Graphs.addGraph(this.subjectGraph, subjectGraph);
+    }
+
+    /**
+     * Result for the subject graph with every change so far applied, computed on
+     * the first call after a change.
+     */
+    public GraphMatchResult getResult() {
+        if (result == null) {
+            SearchContext context = calculator.createContext(reference, GraphSnapshot.of(subjectGraph));
+            result = calculator.solveAll(context, true, cache);
+        }
+        return result;
+    }
+
+    // Adds the transition to the subject, adding its states if they are new.
+    public void addEdge(String source, String target, TransitionEdge edge) {
+        subjectGraph.addVertex(source);
+        subjectGraph.addVertex(target);
+        if (!subjectGraph.addEdge(source, target, edge)) {
+            throw new IllegalArgumentException("Edge " + edge + " is already part of the subject");
+        }
+        result = null;
+    }
+
+    // Removes the transition from the subject; its states are kept.
+    public void removeEdge(TransitionEdge edge) {
+        if (!subjectGraph.removeEdge(edge)) {
+            throw new IllegalArgumentException("Edge " + edge + " is not part of the subject");
+        }
+        result = null;
+    }
+
+    /**
+     * Replaces the transition by one with the same states and type but new labels,
+     * and returns the replacement, which identifies the transition from now on.
+     */
+    public TransitionEdge relabelEdge(TransitionEdge edge, String input, String output) {
+        if (!subjectGraph.containsEdge(edge)) {
+            throw new IllegalArgumentException("Edge " + edge + " is not part of the subject");
+        }
+        String source = subjectGraph.getEdgeSource(edge);
+        String target = subjectGraph.getEdgeTarget(edge);
+        TransitionEdge relabelled = new TransitionEdge(input, output, edge.getType());
+        subjectGraph.removeEdge(edge);
+        subjectGraph.addEdge(source, target, relabelled);
+        result = null;
+        return relabelled;
+    }
+
+    // Read-only view of the subject graph with every change so far applied.
+    public Graph<String, TransitionEdge> getSubjectGraph() {
+        return new AsUnmodifiableGraph<>(subjectGraph);
+    }
+
+    // Independent parts of the last result taken over from the one before.
+    public int getReusedComponentCount() {
+        return cache.getReusedCount();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Solutions of the independent parts of a comparison, kept by a
+ * {@link ComparisonSession} from one computation to the next.
+ *
+ * A part is identified by its reference edge ids and its subject edge objects:
+ * the reference snapshot never changes within a session, and a subject edge that
+ * survives a delta is the same object, so a part with the same key is the same
+ * sub-problem and its solution is taken over without a search. Every other part
+ * is searched with the previous mapping of its edges as the starting incumbent.
+ *
+ * Only solutions of the last computation are kept, so the cache never holds more
+ * than one comparison's worth of parts. Not thread-safe; a computation looks up
+ * and records parts from its calling thread only.
+ */
+final class ComponentCache {
+
+    private Map<Key, Entry> solved = new HashMap<>();
+    // Reference edge -> subject edge it was matched with in the last computation.
+    private Map<TransitionEdge, TransitionEdge> matches = new HashMap<>();
+
+    // Filled by the running computation, swapped in by commit().
+    private Map<Key, Entry> nextSolved = new HashMap<>();
+    private Map<TransitionEdge, TransitionEdge> nextMatches = new HashMap<>();
+    private int reused;
+    private int nextReused;
+
+    // The solution of an identical part of the last computation, or null.
+    Entry lookup(SearchContext part) {
+        Entry entry = solved.get(new Key(part));
+        if (entry != null) {
+            nextReused++;
+        }
+        return entry;
+    }
+
+    // Subject edge the reference edge was matched with last time, or null.
+    TransitionEdge previousMatch(TransitionEdge referenceEdge) {
+        return matches.get(referenceEdge);
+    }
+
+    void record(SearchContext part, SearchOutcome outcome) {
+        nextSolved.put(new Key(part), new Entry(part, outcome));
+        nextMatches.putAll(outcome.getGoalState().getMapping());
+    }
+
+    void recordMatch(TransitionEdge referenceEdge, TransitionEdge subjectEdge) {
+        nextMatches.put(referenceEdge, subjectEdge);
+    }
+
+    // Makes the recorded parts the ones later computations start from.
+    void commit() {
+        solved = nextSolved;
+        matches = nextMatches;
+        reused = nextReused;
+        nextSolved = new HashMap<>();
+        nextMatches = new HashMap<>();
+        nextReused = 0;
+    }
+
+    // Parts of the last computation that were taken over instead of searched.
+    int getReusedCount() {
+        return reused;
+    }
+
+    static final class Entry {
+        private final SearchContext part;
+        private final SearchOutcome outcome;
+
+        Entry(SearchContext part, SearchOutcome outcome) {
+            this.part = part;
+            this.outcome = outcome;
+        }
+
+        // The context the outcome's states refer to, for rendering.
+        SearchContext getPart() {
+            return part;
+        }
+
+        SearchOutcome getOutcome() {
+            return outcome;
+        }
+    }
+
+    private static final class Key {
+        private final int[] references;
+        // Compared by identity: TransitionEdge does not override equals.
+        private final Object[] subjects;
+        private final int hash;
+
+        Key(SearchContext part) {
+            references = new int[part.getReferenceEdgeCount()];
+            for (int r = 0; r < references.length; r++) {
+                references[r] = part.referenceEdgeId(r);
+            }
+            List<TransitionEdge> edges = part.getSubjectEdges();
+            subjects = edges.toArray();
+            hash = 31 * Arrays.hashCode(references) + Arrays.hashCode(subjects);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Arrays.equals(references, other.references) && Arrays.equals(subjects, other.subjects);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
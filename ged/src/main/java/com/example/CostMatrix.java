@@ -0,0 +1,379 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Substitution and reassignment costs of every (reference edge, subject edge) pair
+ * of one comparison, computed once before the search starts.
+ *
+ * Vertex names and input/output labels are interned to ints first, so endpoint and
+ * label comparisons become int comparisons, and the string distance is computed
+ * only once per distinct pair of labels, through the calculator's
+ * {@link LabelDistanceService}. It is not computed at all when both labels differ,
+ * and only up to the dominance limit otherwise: a dominated substitution is
+ * stored as some dominated cost no greater than the exact one. The search then
+ * indexes into two dense n x m matrices instead of calling the cost functions at
+ * every level.
+ *
+ * Each reference edge also gets its candidate list: the subject edges it may be
+ * matched with without the pair being dominated by a deletion plus an insertion
+ * under the cost model. Candidates are looked up in indexes of the subject edges
+ * by endpoints and by labels; all other pairs cost at least the model's price for
+ * unrelated edges, and are only scanned if that price is not dominated.
+ */
+public class CostMatrix {
+
+    private final double[][] substitution;
+    private final double[][] reassignment;
+
+    // Non-dominated subject edges per reference edge, in ascending index order.
+    private final int[][] candidates;
+
+    // Class of each edge: identical edges (endpoints, labels, type) are adjacent in
+    // the context and share the class id, the index of the first of them.
+    private final int[] referenceClasses;
+    private final int[] subjectClasses;
+
+    // Interned vertex names and labels; an id is the position in the list.
+    private final List<String> vertexNames;
+    private final List<String> labels;
+
+    private final long buildTimeNanos;
+    // Distinct label pairs whose distance was requested from the label distance service.
+    private final int labelDistanceCount;
+
+    private CostMatrix(double[][] substitution, double[][] reassignment, int[][] candidates,
+                       int[] referenceClasses, int[] subjectClasses,
+                       List<String> vertexNames, List<String> labels, long buildTimeNanos, int labelDistanceCount) {
+        this.substitution = substitution;
+        this.reassignment = reassignment;
+        this.candidates = candidates;
+        this.referenceClasses = referenceClasses;
+        this.subjectClasses = subjectClasses;
+        this.vertexNames = vertexNames;
+        this.labels = labels;
+        this.buildTimeNanos = buildTimeNanos;
+        this.labelDistanceCount = labelDistanceCount;
+    }
+
+    public static CostMatrix build(SearchContext context, GraphEditDistanceCalculator calculator) {
+        long start = System.nanoTime();
+        CostModel model = calculator.getCostModel();
+        Interner vertices = new Interner();
+        Interner labels = new Interner();
+        EdgeCodes ref = EdgeCodes.of(context.getReference(), context::referenceEdgeId,
+            context.getReferenceEdgeCount(), vertices, labels);
+        EdgeCodes subj = EdgeCodes.of(context.getSubject(), context::subjectEdgeId,
+            context.getSubjectEdgeCount(), vertices, labels);
+
+        // String distances, filled lazily per distinct label pair.
+        Map<Long, Double> labelDistance = new HashMap<>();
+        LabelDistanceService service = calculator.getLabelDistanceService();
+        int limit = (int) Math.ceil(model.getDeletionCost() + model.getInsertionCost());
+
+        int n = ref.size();
+        int m = subj.size();
+        double[][] substitution = new double[n][m];
+        double[][] reassignment = new double[n][m];
+        for (int r = 0; r < n; r++) {
+            for (int s = 0; s < m; s++) {
+                boolean endpointsMatch = ref.source[r] == subj.source[s] && ref.target[r] == subj.target[s];
+                boolean labelsMatch = ref.input[r] == subj.input[s] && ref.output[r] == subj.output[s];
+                if (endpointsMatch) {
+                    // Labels differ exactly if their distance is positive; the distance
+                    // itself only matters when the other label is the same.
+                    boolean inputsDiffer = ref.input[r] != subj.input[s];
+                    boolean outputsDiffer = ref.output[r] != subj.output[s];
+                    double inputCost = !inputsDiffer ? 0.0 : outputsDiffer ? 1.0
+                        : distance(ref.input[r], subj.input[s], limit, labels, labelDistance, service);
+                    double outputCost = !outputsDiffer ? 0.0 : inputsDiffer ? 1.0
+                        : distance(ref.output[r], subj.output[s], limit, labels, labelDistance, service);
+                    substitution[r][s] = model.substitutionCost(true, inputCost, outputCost);
+                } else {
+                    substitution[r][s] = model.substitutionCost(false, 0.0, 0.0);
+                }
+                reassignment[r][s] = model.reassignmentCost(labelsMatch, endpointsMatch);
+            }
+        }
+        int[][] candidates = candidates(ref, subj, substitution, reassignment, model);
+        return new CostMatrix(substitution, reassignment, candidates,
+            classes(ref), classes(subj),
+            vertices.values, labels.values, System.nanoTime() - start, labelDistance.size());
+    }
+
+    // Run ids of adjacent identical edges.
+    private static int[] classes(EdgeCodes codes) {
+        int[] classes = new int[codes.size()];
+        for (int i = 0; i < classes.length; i++) {
+            boolean sameAsPrevious = i > 0
+                && codes.source[i] == codes.source[i - 1] && codes.target[i] == codes.target[i - 1]
+                && codes.input[i] == codes.input[i - 1] && codes.output[i] == codes.output[i - 1]
+                && codes.type[i] == codes.type[i - 1];
+            classes[i] = sameAsPrevious ? classes[i - 1] : i;
+        }
+        return classes;
+    }
+
+    private static int[][] candidates(EdgeCodes ref, EdgeCodes subj, double[][] substitution,
+                                      double[][] reassignment, CostModel model) {
+        int n = ref.size();
+        int m = subj.size();
+        boolean scanAll = !model.isDominated(model.minimumUnrelatedCost());
+        Map<Long, List<Integer>> byEndpoints = new HashMap<>();
+        Map<Long, List<Integer>> byLabels = new HashMap<>();
+        for (int s = 0; s < m; s++) {
+            byEndpoints.computeIfAbsent(pack(subj.source[s], subj.target[s]), k -> new ArrayList<>()).add(s);
+            byLabels.computeIfAbsent(pack(subj.input[s], subj.output[s]), k -> new ArrayList<>()).add(s);
+        }
+
+        int[][] candidates = new int[n][];
+        int[] row = new int[m];
+        // seen[s] == r + 1 if s is already in the row of r.
+        int[] seen = new int[m];
+        for (int r = 0; r < n; r++) {
+            int size = 0;
+            if (scanAll) {
+                for (int s = 0; s < m; s++) {
+                    row[size++] = s;
+                }
+            } else {
+                List<Integer> sameEndpoints = byEndpoints.get(pack(ref.source[r], ref.target[r]));
+                List<Integer> sameLabels = byLabels.get(pack(ref.input[r], ref.output[r]));
+                for (List<Integer> group : Arrays.asList(sameEndpoints, sameLabels)) {
+                    if (group == null) {
+                        continue;
+                    }
+                    for (int s : group) {
+                        if (seen[s] != r + 1) {
+                            seen[s] = r + 1;
+                            row[size++] = s;
+                        }
+                    }
+                }
+            }
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int s = row[i];
+                if (!model.isDominated(Math.min(substitution[r][s], reassignment[r][s]))) {
+                    row[kept++] = s;
+                }
+            }
+            candidates[r] = Arrays.copyOf(row, kept);
+            Arrays.sort(candidates[r]);
+        }
+        return candidates;
+    }
+
+    private static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    // Label distance of a pair that differs in this label only. Distances from
+    // limit on make the substitution dominated, so they are not computed exactly.
+    private static double distance(int a, int b, int limit, Interner labels, Map<Long, Double> cache,
+                                   LabelDistanceService service) {
+        long pair = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+        Double known = cache.get(pair);
+        if (known == null) {
+            known = (double) service.distance(labels.values.get(a), labels.values.get(b), limit);
+            cache.put(pair, known);
+        }
+        return known;
+    }
+
+    public double substitution(int referenceIndex, int subjectIndex) {
+        return substitution[referenceIndex][subjectIndex];
+    }
+
+    public double reassignment(int referenceIndex, int subjectIndex) {
+        return reassignment[referenceIndex][subjectIndex];
+    }
+
+    // Cheapest way to match the two edges; the search offers both substitution and reassignment.
+    public double pairCost(int referenceIndex, int subjectIndex) {
+        return Math.min(substitution[referenceIndex][subjectIndex], reassignment[referenceIndex][subjectIndex]);
+    }
+
+    /**
+     * Costs and candidates of a sub-problem: the given reference and subject edges
+     * (in ascending index order), re-indexed by their position in the arrays.
+     */
+    CostMatrix restrict(int[] references, int[] subjects) {
+        long start = System.nanoTime();
+        int[] localSubject = new int[subjects.length == 0 ? 0 : subjects[subjects.length - 1] + 1];
+        Arrays.fill(localSubject, -1);
+        for (int j = 0; j < subjects.length; j++) {
+            localSubject[subjects[j]] = j;
+        }
+        double[][] subSubstitution = new double[references.length][subjects.length];
+        double[][] subReassignment = new double[references.length][subjects.length];
+        int[][] subCandidates = new int[references.length][];
+        int[] subReferenceClasses = new int[references.length];
+        int[] subSubjectClasses = new int[subjects.length];
+        for (int j = 0; j < subjects.length; j++) {
+            subSubjectClasses[j] = subjectClasses[subjects[j]];
+        }
+        for (int i = 0; i < references.length; i++) {
+            int r = references[i];
+            subReferenceClasses[i] = referenceClasses[r];
+            for (int j = 0; j < subjects.length; j++) {
+                subSubstitution[i][j] = substitution[r][subjects[j]];
+                subReassignment[i][j] = reassignment[r][subjects[j]];
+            }
+            int[] row = new int[candidates[r].length];
+            int size = 0;
+            for (int s : candidates[r]) {
+                if (s < localSubject.length && localSubject[s] >= 0) {
+                    row[size++] = localSubject[s];
+                }
+            }
+            subCandidates[i] = Arrays.copyOf(row, size);
+        }
+        return new CostMatrix(subSubstitution, subReassignment, subCandidates,
+            subReferenceClasses, subSubjectClasses, vertexNames, labels, System.nanoTime() - start, 0);
+    }
+
+    /**
+     * Subject edges worth matching with the given reference edge, in ascending
+     * index order. Any other pairing is dominated by deleting and inserting.
+     */
+    public int[] candidates(int referenceIndex) {
+        return candidates[referenceIndex];
+    }
+
+    // Class id of a reference edge; equal ids mark identical, interchangeable edges.
+    public int referenceClass(int referenceIndex) {
+        return referenceClasses[referenceIndex];
+    }
+
+    // Class id of a subject edge; equal ids mark identical, interchangeable edges.
+    public int subjectClass(int subjectIndex) {
+        return subjectClasses[subjectIndex];
+    }
+
+    // True if every cost in the matrices is a whole number.
+    public boolean isIntegral() {
+        for (int r = 0; r < substitution.length; r++) {
+            if (!allIntegral(substitution[r]) || !allIntegral(reassignment[r])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean allIntegral(double[] values) {
+        for (double value : values) {
+            if (value != Math.rint(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getVertexCount() {
+        return vertexNames.size();
+    }
+
+    public int getLabelCount() {
+        return labels.size();
+    }
+
+    public int getLabelDistanceCount() {
+        return labelDistanceCount;
+    }
+
+    public long getBuildTimeNanos() {
+        return buildTimeNanos;
+    }
+
+    /**
+     * Approximate heap size of the two matrices in bytes, assuming a 16 byte array
+     * header and 8 byte references. The interned strings are shared with the
+     * graphs and not counted.
+     */
+    public long getMemoryFootprintBytes() {
+        long perMatrix = 16L + 8L * substitution.length;
+        for (double[] row : substitution) {
+            perMatrix += 16L + 8L * row.length;
+        }
+        return 2 * perMatrix;
+    }
+
+    @Override
+    public String toString() {
+        int m = substitution.length == 0 ? 0 : substitution[0].length;
+        return "CostMatrix{" +
+               substitution.length + "x" + m +
+               ", vertices=" + vertexNames.size() +
+               ", labels=" + labels.size() +
+               ", buildTimeMicros=" + buildTimeNanos / 1000 +
+               ", bytes=" + getMemoryFootprintBytes() +
+               '}';
+    }
+
+    // Assigns consecutive ids to distinct strings.
+    private static final class Interner {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int intern(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+    }
+
+    // Interned endpoints and labels of one side's edges, by edge index.
+    private static final class EdgeCodes {
+        private final int[] source;
+        private final int[] target;
+        private final int[] input;
+        private final int[] output;
+        private final DiffType[] type;
+
+        private EdgeCodes(int size) {
+            source = new int[size];
+            target = new int[size];
+            input = new int[size];
+            output = new int[size];
+            type = new DiffType[size];
+        }
+
+        // The snapshot's vertex and label codes are translated into the shared
+        // ones once per code, not once per edge.
+        static EdgeCodes of(GraphSnapshot snapshot, IntUnaryOperator edgeId, int size,
+                            Interner vertices, Interner labels) {
+            int[] vertexIds = new int[snapshot.getVertexCount()];
+            for (int v = 0; v < vertexIds.length; v++) {
+                vertexIds[v] = vertices.intern(snapshot.vertexName(v));
+            }
+            int[] labelIds = new int[snapshot.getLabelCount()];
+            for (int l = 0; l < labelIds.length; l++) {
+                labelIds[l] = labels.intern(snapshot.label(l));
+            }
+            EdgeCodes codes = new EdgeCodes(size);
+            for (int i = 0; i < size; i++) {
+                int edge = edgeId.applyAsInt(i);
+                codes.source[i] = vertexIds[snapshot.source(edge)];
+                codes.target[i] = vertexIds[snapshot.target(edge)];
+                codes.input[i] = labelIds[snapshot.input(edge)];
+                codes.output[i] = labelIds[snapshot.output(edge)];
+                codes.type[i] = snapshot.type(edge);
+            }
+            return codes;
+        }
+
+        int size() {
+            return source.length;
+        }
+    }
+}
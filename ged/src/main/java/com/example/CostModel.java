@@ -0,0 +1,126 @@
+package com.example;
+
+/**
+ * Edit costs of one comparison: insertion and deletion of an edge, and the rules
+ * for matching a reference edge with a subject edge by substitution or
+ * reassignment. Label distances are supplied by the caller.
+ *
+ * Every cost depends on a single edge or edge pair only. Pruning rules derived
+ * from the model (see {@link #isDominated(double)}) therefore stay valid when the
+ * constants change.
+ */
+public final class CostModel {
+
+    // The costs the calculator has always used.
+    public static final CostModel DEFAULT = new CostModel(10.0, 10.0, 250.0, 1000.0, 250.0, 2.0);
+
+    private final double insertionCost;
+    private final double deletionCost;
+    // Substitution of edges whose endpoints differ.
+    private final double endpointMismatchCost;
+    // Substitution of edges on the same endpoints whose input and output labels both differ.
+    private final double doubleRelabelCost;
+    // Reassignment of edges whose labels differ.
+    private final double labelMismatchCost;
+    // Reassignment of equally labelled edges to other endpoints.
+    private final double rewireCost;
+
+    public CostModel(double insertionCost, double deletionCost, double endpointMismatchCost,
+                     double doubleRelabelCost, double labelMismatchCost, double rewireCost) {
+        this.insertionCost = insertionCost;
+        this.deletionCost = deletionCost;
+        this.endpointMismatchCost = endpointMismatchCost;
+        this.doubleRelabelCost = doubleRelabelCost;
+        this.labelMismatchCost = labelMismatchCost;
+        this.rewireCost = rewireCost;
+    }
+
+    public double getInsertionCost() {
+        return insertionCost;
+    }
+
+    public double getDeletionCost() {
+        return deletionCost;
+    }
+
+    /**
+     * Substitution of a reference edge by a subject edge. On equal endpoints the
+     * cost is the sum of the label distances, unless both labels changed.
+     */
+    public double substitutionCost(boolean endpointsMatch, double inputCost, double outputCost) {
+        if (!endpointsMatch) {
+            return endpointMismatchCost;
+        }
+        if (inputCost > 0 && outputCost > 0) {
+            return doubleRelabelCost;
+        }
+        return inputCost + outputCost;
+    }
+
+    // Reassignment of a reference edge to the endpoints of a subject edge.
+    public double reassignmentCost(boolean labelsMatch, boolean endpointsMatch) {
+        if (!labelsMatch) {
+            return labelMismatchCost;
+        }
+        // If endpoints are different, assign a reassignment cost.
+        if (!endpointsMatch) {
+            return rewireCost;
+        }
+        // If endpoints are the same (and labels are the same), no reassignment is needed.
+        return 0.0;
+    }
+
+    /**
+     * True if matching two edges at this cost is never needed: deleting the one and
+     * inserting the other is at least as cheap, so some optimal edit path avoids it.
+     */
+    public boolean isDominated(double pairCost) {
+        return pairCost >= deletionCost + insertionCost;
+    }
+
+    // Cheapest match of equally labelled edges on different endpoints.
+    public double minimumRewireCost() {
+        return Math.min(reassignmentCost(true, false), substitutionCost(false, 0.0, 0.0));
+    }
+
+    // Cheapest match of differently labelled edges, for label distances of at least 1.
+    public double minimumRelabelCost() {
+        double onSameEndpoints = Math.min(Math.min(substitutionCost(true, 1.0, 0.0), substitutionCost(true, 0.0, 1.0)),
+            substitutionCost(true, 1.0, 1.0));
+        return Math.min(onSameEndpoints, minimumUnrelatedCost());
+    }
+
+    // Cheapest match of edges that share neither endpoints nor labels.
+    public double minimumUnrelatedCost() {
+        return Math.min(substitutionCost(false, 0.0, 0.0), reassignmentCost(false, false));
+    }
+
+    // True if every cost is a whole number (label distances aside).
+    public boolean isIntegral() {
+        return CostMatrix.allIntegral(new double[] {insertionCost, deletionCost, endpointMismatchCost,
+            doubleRelabelCost, labelMismatchCost, rewireCost});
+    }
+
+    /**
+     * Identifier of the constants as 16 hex digits: equal for equal models in every
+     * run, so it can key results that outlive the process.
+     */
+    public String getId() {
+        long id = GraphFingerprint.hashOf(Double.doubleToLongBits(insertionCost), Double.doubleToLongBits(deletionCost),
+            Double.doubleToLongBits(endpointMismatchCost), Double.doubleToLongBits(doubleRelabelCost),
+            Double.doubleToLongBits(labelMismatchCost), Double.doubleToLongBits(rewireCost));
+        return String.format("%016x", id);
+    }
+
+    @Override
+    public String toString() {
+        return "CostModel{" +
+               "insertion=" + insertionCost +
+               ", deletion=" + deletionCost +
+               ", endpointMismatch=" + endpointMismatchCost +
+               ", doubleRelabel=" + doubleRelabelCost +
+               ", labelMismatch=" + labelMismatchCost +
+               ", rewire=" + rewireCost +
+               '}';
+    }
+}
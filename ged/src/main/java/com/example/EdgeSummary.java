@@ -0,0 +1,98 @@
+package com.example;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jgrapht.Graph;
+
+/**
+ * Multisets of the non-COMMON edges of one graph, by label pair and by full
+ * signature (endpoints and labels). Two summaries give a lower bound on the edit
+ * distance of their graphs in time linear in the number of distinct signatures,
+ * which is used to skip exact comparisons that cannot matter.
+ */
+public final class EdgeSummary {
+
+    private final int edgeCount;
+    // Edge counts per "input/output" label pair.
+    private final Map<String, Integer> labelCounts;
+    // Edge counts per "source/target/input/output" signature.
+    private final Map<String, Integer> signatureCounts;
+
+    private EdgeSummary(int edgeCount, Map<String, Integer> labelCounts, Map<String, Integer> signatureCounts) {
+        this.edgeCount = edgeCount;
+        this.labelCounts = labelCounts;
+        this.signatureCounts = signatureCounts;
+    }
+
+    public static EdgeSummary of(Graph<String, TransitionEdge> graph) {
+        int edgeCount = 0;
+        Map<String, Integer> labelCounts = new HashMap<>();
+        Map<String, Integer> signatureCounts = new HashMap<>();
+        for (TransitionEdge edge : graph.edgeSet()) {
+            if (edge.getType() == DiffType.COMMON) {
+                continue;
+            }
+            edgeCount++;
+            String labels = edge.getInput() + '\u0000' + edge.getOutput();
+            labelCounts.merge(labels, 1, Integer::sum);
+            signatureCounts.merge(graph.getEdgeSource(edge) + '\u0000' + graph.getEdgeTarget(edge) + '\u0000' + labels,
+                1, Integer::sum);
+        }
+        return new EdgeSummary(edgeCount, labelCounts, signatureCounts);
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Lower bound on the edit distance from the reference to the subject graph.
+     *
+     * With p matched pairs, n - p deletions and m - p insertions are needed. At most
+     * e pairs (shared signatures) are free. At most c - e more (shared label pairs)
+     * may be equally labelled edges on other endpoints; as the optimum may just as
+     * well use differently labelled pairs there, each costs at least the cheaper of
+     * the two kinds of match. The rest cost at least the cheapest match of
+     * differently labelled edges. The bound is linear in p between the breakpoints
+     * e and c, so only those and the ends are tried.
+     *
+     * The vertex-mapping engine may rename states, so there every shared label
+     * pair counts as a possibly free pair and endpoint names are ignored.
+     */
+    public static double lowerBound(EdgeSummary reference, EdgeSummary subject, GraphEditDistanceCalculator calculator) {
+        int n = reference.edgeCount;
+        int m = subject.edgeCount;
+        int sharedLabels = intersection(reference.labelCounts, subject.labelCounts);
+        int sharedSignatures = calculator.getEngine() == Engine.VERTEX_MAPPING
+            ? sharedLabels : intersection(reference.signatureCounts, subject.signatureCounts);
+
+        CostModel model = calculator.getCostModel();
+        double relabel = model.minimumRelabelCost();
+        double rewireOrRelabel = Math.min(model.minimumRewireCost(), relabel);
+
+        int maxPairs = Math.min(n, m);
+        double best = Double.POSITIVE_INFINITY;
+        for (int p : new int[] {0, Math.min(sharedSignatures, maxPairs), Math.min(sharedLabels, maxPairs), maxPairs}) {
+            double bound = (n - p) * model.getDeletionCost() + (m - p) * model.getInsertionCost()
+                + Math.max(0, Math.min(p, sharedLabels) - sharedSignatures) * rewireOrRelabel
+                + Math.max(0, p - sharedLabels) * relabel;
+            best = Math.min(best, bound);
+        }
+        return best;
+    }
+
+    private static int intersection(Map<String, Integer> a, Map<String, Integer> b) {
+        if (a.size() > b.size()) {
+            return intersection(b, a);
+        }
+        int shared = 0;
+        for (Map.Entry<String, Integer> entry : a.entrySet()) {
+            Integer other = b.get(entry.getKey());
+            if (other != null) {
+                shared += Math.min(entry.getValue(), other);
+            }
+        }
+        return shared;
+    }
+}
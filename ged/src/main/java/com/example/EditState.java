@@ -1,54 +1,129 @@
 package com.example;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * A node of the edit-path search.
+ *
+ * States are persistent: each one only stores its delta from the previous state
+ * (the matched pair, or the deleted or inserted edge) plus the bitsets of its
+ * {@link StateKey}, which double as the sets of unmatched edges. The mapping and
+ * the unmatched edge lists are materialized on request, which is meant for the
+ * goal state only.
+ */
 public class EditState {
 
-    // Mapping from a reference edge to its matched subject edge.
-    // If a reference edge is not mapped, it won't be in this map.
-    private final Map<TransitionEdge, TransitionEdge> mapping;
-    
+    private static final int NONE = -1;
+
+    // Edge lists the indices below refer to.
+    private final SearchContext context;
+
     // Cumulative cost (g-value) from the initial state to this state.
     private final double cumulativeCost;
-    
-    // Unmatched edges in the reference graph.
-    private final List<TransitionEdge> unmatchedReferenceEdges;
-    
-    // Unmatched edges in the subject graph.
-    private final List<TransitionEdge> unmatchedSubjectEdges;
-    
+
+    // Lower bound on the cost still needed to complete this state (h-value).
+    private final double heuristicCost;
+
+    // f-value, computed once here instead of on every open-list comparison.
+    private final double estimatedTotalCost;
+
     // Optional: pointer to the previous state (for reconstructing the edit path).
     private final EditState previousState;
-    
-    // Optional: operation performed to get from previousState to this state.
-    private final EditOperation operation;
-    
-    // Constructor for the initial state (no previous state, no operation)
-    public EditState(Map<TransitionEdge, TransitionEdge> mapping,
-                     double cumulativeCost,
-                     List<TransitionEdge> unmatchedReferenceEdges,
-                     List<TransitionEdge> unmatchedSubjectEdges) {
-        this(mapping, cumulativeCost, unmatchedReferenceEdges, unmatchedSubjectEdges, null, null);
-    }
-    
-    // Full constructor
-    public EditState(Map<TransitionEdge, TransitionEdge> mapping,
-                     double cumulativeCost,
-                     List<TransitionEdge> unmatchedReferenceEdges,
-                     List<TransitionEdge> unmatchedSubjectEdges,
-                     EditState previousState,
-                     EditOperation operation) {
-        this.mapping = mapping;
+
+    // Operation performed to get from previousState to this state, kept as a bare
+    // (type, cost) record; EditOperation descriptions are only rendered for the goal path.
+    private final EditOperation.OperationType operationType;
+    private final double operationCost;
+
+    // Delta from previousState: the reference and/or subject edge the operation consumed.
+    private final int referenceIndex;
+    private final int subjectIndex;
+
+    // Canonical key: which edges are consumed, independent of the order of operations.
+    private final StateKey key;
+
+    private final int unmatchedReferenceCount;
+    private final int unmatchedSubjectCount;
+
+    private EditState(SearchContext context, double cumulativeCost, double heuristicCost,
+                      EditState previousState, EditOperation.OperationType operationType, double operationCost,
+                      int referenceIndex, int subjectIndex, StateKey key,
+                      int unmatchedReferenceCount, int unmatchedSubjectCount) {
+        this.context = context;
         this.cumulativeCost = cumulativeCost;
-        this.unmatchedReferenceEdges = unmatchedReferenceEdges;
-        this.unmatchedSubjectEdges = unmatchedSubjectEdges;
+        this.heuristicCost = heuristicCost;
+        this.estimatedTotalCost = cumulativeCost + Math.max(0.0, heuristicCost);
         this.previousState = previousState;
-        this.operation = operation;
+        this.operationType = operationType;
+        this.operationCost = operationCost;
+        this.referenceIndex = referenceIndex;
+        this.subjectIndex = subjectIndex;
+        this.key = key;
+        this.unmatchedReferenceCount = unmatchedReferenceCount;
+        this.unmatchedSubjectCount = unmatchedSubjectCount;
     }
-    
+
+    // The initial state: empty mapping, zero cost, every edge unmatched.
+    public static EditState initial(SearchContext context, double heuristicCost) {
+        int n = context.getReferenceEdgeCount();
+        int m = context.getSubjectEdgeCount();
+        return new EditState(context, 0.0, heuristicCost, null, null, 0.0, NONE, NONE, StateKey.empty(n, m), n, m);
+    }
+
+    /**
+     * A state read back from storage: the key and the g- and h-values, without
+     * the path that led to it. Children can be generated as usual; the path is
+     * stored and rebuilt separately.
+     */
+    static EditState restore(SearchContext context, StateKey key, double cumulativeCost, double heuristicCost) {
+        int n = context.getReferenceEdgeCount();
+        int m = context.getSubjectEdgeCount();
+        return new EditState(context, cumulativeCost, heuristicCost, null, null, 0.0, NONE, NONE, key,
+            n - key.countConsumedReferences(), m - key.countConsumedSubjects());
+    }
+
+    // Child in which the given reference edge is matched with the given subject edge,
+    // by a SUBSTITUTION or a REASSIGNMENT.
+    public EditState match(int refIndex, int subjIndex, EditOperation.OperationType type, double cost,
+                           double childHeuristicCost) {
+        return new EditState(context, cumulativeCost + cost, childHeuristicCost, this, type, cost,
+            refIndex, subjIndex, key.consumePair(refIndex, subjIndex),
+            unmatchedReferenceCount - 1, unmatchedSubjectCount - 1);
+    }
+
+    // Child in which the given reference edge is deleted.
+    public EditState delete(int refIndex, double cost, double childHeuristicCost) {
+        return new EditState(context, cumulativeCost + cost, childHeuristicCost, this,
+            EditOperation.OperationType.DELETION, cost,
+            refIndex, NONE, key.consumeReference(refIndex),
+            unmatchedReferenceCount - 1, unmatchedSubjectCount);
+    }
+
+    // Child in which the given subject edge is inserted.
+    public EditState insert(int subjIndex, double cost, double childHeuristicCost) {
+        return new EditState(context, cumulativeCost + cost, childHeuristicCost, this,
+            EditOperation.OperationType.INSERTION, cost,
+            NONE, subjIndex, key.consumeSubject(subjIndex),
+            unmatchedReferenceCount, unmatchedSubjectCount - 1);
+    }
+
     // Getters
+
+    /**
+     * Mapping from a reference edge to its matched subject edge, rebuilt by walking
+     * back to the initial state. Reference edges that are not mapped are absent.
+     */
     public Map<TransitionEdge, TransitionEdge> getMapping() {
+        Map<TransitionEdge, TransitionEdge> mapping = new HashMap<>();
+        for (EditState state = this; state.previousState != null; state = state.previousState) {
+            if (state.referenceIndex != NONE && state.subjectIndex != NONE) {
+                mapping.put(context.getReferenceEdges().get(state.referenceIndex),
+                            context.getSubjectEdges().get(state.subjectIndex));
+            }
+        }
         return mapping;
     }
 
@@ -56,27 +131,99 @@ public class EditState {
         return cumulativeCost;
     }
 
+    // The raw estimate may dip below zero; it is kept as is because children
+    // derive their estimate from it, and only clamped when used.
+    public double getHeuristicCost() {
+        return heuristicCost;
+    }
+
+    // f-value used to order the open list.
+    public double getEstimatedTotalCost() {
+        return estimatedTotalCost;
+    }
+
     public List<TransitionEdge> getUnmatchedReferenceEdges() {
-        return unmatchedReferenceEdges;
+        List<TransitionEdge> edges = new ArrayList<>(unmatchedReferenceCount);
+        for (int r = nextUnmatchedReference(0); r >= 0; r = nextUnmatchedReference(r + 1)) {
+            edges.add(context.getReferenceEdges().get(r));
+        }
+        return edges;
     }
 
     public List<TransitionEdge> getUnmatchedSubjectEdges() {
-        return unmatchedSubjectEdges;
+        List<TransitionEdge> edges = new ArrayList<>(unmatchedSubjectCount);
+        for (int s = nextUnmatchedSubject(0); s >= 0; s = nextUnmatchedSubject(s + 1)) {
+            edges.add(context.getSubjectEdges().get(s));
+        }
+        return edges;
+    }
+
+    public int getUnmatchedReferenceCount() {
+        return unmatchedReferenceCount;
+    }
+
+    public int getUnmatchedSubjectCount() {
+        return unmatchedSubjectCount;
+    }
+
+    // Index of the first unmatched reference edge at or after from, or -1.
+    public int nextUnmatchedReference(int from) {
+        return key.nextUnconsumedReference(from, context.getReferenceEdgeCount());
+    }
+
+    // Index of the first unmatched subject edge at or after from, or -1.
+    public int nextUnmatchedSubject(int from) {
+        return key.nextUnconsumedSubject(from, context.getSubjectEdgeCount());
     }
 
     public EditState getPreviousState() {
         return previousState;
     }
 
-    public EditOperation getOperation() {
-        return operation;
+    // Type of the operation that led here, or null for the initial state.
+    public EditOperation.OperationType getOperationType() {
+        return operationType;
+    }
+
+    public double getOperationCost() {
+        return operationCost;
     }
-    
+
+    // Reference edge consumed by the operation, or -1 for an insertion or the initial state.
+    public int getReferenceIndex() {
+        return referenceIndex;
+    }
+
+    // Subject edge consumed by the operation, or -1 for a deletion or the initial state.
+    public int getSubjectIndex() {
+        return subjectIndex;
+    }
+
+    public StateKey getKey() {
+        return key;
+    }
+
     /**
      * Determines if this state is a goal state.
      * For example, the goal state could be defined as when there are no unmatched edges left.
      */
     public boolean isComplete() {
-        return unmatchedReferenceEdges.isEmpty() && unmatchedSubjectEdges.isEmpty();
+        return unmatchedReferenceCount == 0 && unmatchedSubjectCount == 0;
+    }
+
+    /**
+     * Two states are equal when they have consumed the same edges, i.e. when they
+     * leave the same sub-problem. The cost of reaching them may differ.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EditState)) return false;
+        return key.equals(((EditState) o).key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
     }
 }
@@ -0,0 +1,40 @@
+package com.example;
+
+/**
+ * Algorithm the calculator uses to find the edit path.
+ */
+public enum Engine {
+    // State-space search configured by the search mode, branching mode and heuristic.
+    A_STAR,
+
+    /**
+     * Bipartite approximation (Riesen-Bunke): one linear sum assignment over all
+     * edges, polynomial in the number of edges. Exact for the calculator's
+     * edge-local costs, an upper bound in general.
+     */
+    BIPARTITE,
+
+    /**
+     * Exact depth-first branch and bound over the fixed-order search tree,
+     * started from the bipartite solution as incumbent. Memory grows with the
+     * depth of the tree only, not with the number of states generated.
+     */
+    BRANCH_AND_BOUND,
+
+    /**
+     * Exact hash-distributed A* on several threads: each thread owns the states
+     * whose key hashes to it. Always optimal; the search mode and the budgets
+     * are not applied.
+     */
+    PARALLEL_A_STAR,
+
+    /**
+     * Exact search over mappings of reference states onto subject states instead
+     * of over edge operations: edges on corresponding states count as having the
+     * same endpoints even if the states are named differently. The distance is
+     * therefore at most the one of the other engines, and zero for a renamed copy.
+     * States that carry COMMON edges keep their names. The search mode is not
+     * applied; the budgets are.
+     */
+    VERTEX_MAPPING,
+}
@@ -0,0 +1,494 @@
+package com.example;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Optimal A* whose state storage can grow beyond the Java heap.
+ *
+ * Every state accepted for the open list is written as a fixed-width record of
+ * longs: its canonical key, g- and h-value, the id of its parent record and the
+ * operation that led to it. Records are appended to memory-mapped segment files,
+ * so the search itself only handles record ids. The open list keeps ids in one
+ * bucket per f-value; the duplicate-detection table is an open-addressing hash
+ * table of (key, best g) slots. Both start on the heap.
+ *
+ * Half of the heap budget is granted to each of them. When the ids held by the
+ * open list exceed their half, the buckets with the highest f-values, which are
+ * expanded last, are written to a mapped file until a quarter of the budget is
+ * left; a bucket whose turn comes reads its spilled ids back from there. When the
+ * table would outgrow its half, it is rehashed into mapped pages instead. The
+ * expansion order is exactly that of A* with f-ordered buckets, so the first
+ * complete state taken from the open list is optimal, whatever was spilled.
+ *
+ * Only the path of the returned state is rebuilt as EditStates, by following the
+ * parent ids of its record back to the initial state. Mapped pages start small and
+ * grow with the search (see {@link PagedLongs}); every file is unmapped and
+ * deleted when the search returns.
+ */
+final class ExternalMemoryAStar {
+
+    // Records start in a mapped page of 2^10 longs (8 KiB), which doubles up to 2^21 longs (16 MiB).
+    private static final int INITIAL_RECORD_LONGS = 1 << 10;
+    private static final int RECORD_PAGE_SHIFT = 21;
+    private static final int TABLE_PAGE_SHIFT = 24;
+    private static final int SPILL_PAGE_SHIFT = 20;
+    private static final int INITIAL_TABLE_SLOTS = 1 << 10;
+    // Rough heap size of a bucket without its ids.
+    private static final long BUCKET_OVERHEAD = 96;
+    private static final EditOperation.OperationType[] TYPES = EditOperation.OperationType.values();
+    private static final long NO_PARENT = -1;
+
+    private final SearchContext context;
+    private final Function<EditState, List<EditState>> expander;
+    private final UnaryOperator<EditState> completer;
+    private final SearchBudget budget;
+    private final SearchStatistics statistics;
+    private final long heapBudgetBytes;
+    private final Path spillParent;
+
+    private SpillDirectory spill;
+    private RecordStore records;
+    private KeyTable table;
+    private OpenBuckets open;
+
+    ExternalMemoryAStar(SearchContext context, Function<EditState, List<EditState>> expander,
+                        UnaryOperator<EditState> completer, SearchBudget budget, long heapBudgetBytes, Path spillParent) {
+        this.context = context;
+        this.expander = expander;
+        this.completer = completer;
+        this.budget = budget;
+        this.statistics = budget.getStatistics();
+        this.heapBudgetBytes = heapBudgetBytes;
+        this.spillParent = spillParent;
+    }
+
+    SearchOutcome run(EditState initialState) {
+        try (SpillDirectory directory = new SpillDirectory(spillParent)) {
+            spill = directory;
+            int keyWords = initialState.getKey().getWordCount();
+            records = new RecordStore(keyWords);
+            table = new KeyTable(keyWords);
+            open = new OpenBuckets();
+            return search(initialState);
+        }
+    }
+
+    private SearchOutcome search(EditState initialState) {
+        EditState incumbent = context.getIncumbent();
+        double bound = incumbent == null ? Double.POSITIVE_INFINITY : incumbent.getCumulativeCost();
+
+        table.offer(initialState.getKey(), initialState.getCumulativeCost());
+        open.add(initialState.getEstimatedTotalCost(), records.append(initialState, NO_PARENT));
+
+        while (!open.isEmpty()) {
+            if (budget.isExhausted()) {
+                return interrupted(incumbent);
+            }
+            long id = open.poll();
+            StateKey key = records.key(id, initialState.getKey());
+            double g = records.g(id);
+            EditState state = EditState.restore(context, key, g, records.h(id));
+
+            if (table.isSuperseded(key, g)) {
+                statistics.countDuplicate();
+                continue;
+            }
+            if (state.getEstimatedTotalCost() >= bound) {
+                // Buckets come out in f-order: nothing left can beat the incumbent.
+                statistics.countPruned(1 + open.size());
+                break;
+            }
+            if (state.isComplete()) {
+                return new SearchOutcome(rebuild(id), g);
+            }
+
+            budget.countExpansion();
+            List<EditState> children = expander.apply(state);
+            statistics.countGenerated(children.size());
+            for (EditState child : children) {
+                if (child.getEstimatedTotalCost() >= bound) {
+                    statistics.countPruned(1);
+                    continue;
+                }
+                if (!table.offer(child.getKey(), child.getCumulativeCost())) {
+                    statistics.countDuplicate();
+                    continue;
+                }
+                open.add(child.getEstimatedTotalCost(), appendPath(child, state, id));
+            }
+            statistics.observeOpenListSize(open.size());
+            open.spillIfNeeded();
+        }
+
+        if (incumbent != null) {
+            // Everything that could beat the incumbent has been ruled out.
+            return new SearchOutcome(incumbent, incumbent.getCumulativeCost());
+        }
+        throw new RuntimeException("No valid edit path found.");
+    }
+
+    // Budget ran out: the incumbent, or a greedy completion of the most promising open state.
+    private SearchOutcome interrupted(EditState incumbent) {
+        double lowerBound = open.lowestEstimatedTotalCost();
+        if (incumbent != null) {
+            return new SearchOutcome(incumbent, Math.min(lowerBound, incumbent.getCumulativeCost()));
+        }
+        return new SearchOutcome(completer.apply(rebuild(open.poll())), lowerBound);
+    }
+
+    // Appends the child and any states between it and the expanded parent (a bulk
+    // insertion hands out only its last state); returns the child's id.
+    private long appendPath(EditState child, EditState parent, long parentId) {
+        Deque<EditState> path = new ArrayDeque<>();
+        for (EditState state = child; state != parent; state = state.getPreviousState()) {
+            path.push(state);
+        }
+        long id = parentId;
+        for (EditState state : path) {
+            id = records.append(state, id);
+        }
+        return id;
+    }
+
+    // The path from the initial state to the record, replayed as EditStates.
+    private EditState rebuild(long id) {
+        Deque<Long> path = new ArrayDeque<>();
+        for (long current = id; current != NO_PARENT; current = records.parent(current)) {
+            path.push(current);
+        }
+        long root = path.pop();
+        EditState state = EditState.initial(context, records.h(root));
+        for (long current : path) {
+            int r = records.referenceIndex(current);
+            int s = records.subjectIndex(current);
+            double cost = records.operationCost(current);
+            double h = records.h(current);
+            EditOperation.OperationType type = records.type(current);
+            switch (type) {
+                case DELETION:
+                    state = state.delete(r, cost, h);
+                    break;
+                case INSERTION:
+                    state = state.insert(s, cost, h);
+                    break;
+                default:
+                    state = state.match(r, s, type, cost, h);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Append-only records in mapped pages. Layout in longs: key words, g, h,
+     * parent id, operation cost, (reference index, subject index) packed into one
+     * long, operation type ordinal + 1 (0 for the initial state).
+     */
+    private final class RecordStore {
+        private final int keyWords;
+        private final int width;
+        private final PagedLongs longs;
+        private long count;
+
+        RecordStore(int keyWords) {
+            this.keyWords = keyWords;
+            this.width = keyWords + 6;
+            this.longs = PagedLongs.mapped(INITIAL_RECORD_LONGS, RECORD_PAGE_SHIFT, spill);
+        }
+
+        long append(EditState state, long parent) {
+            long base = count * width;
+            longs.ensureCapacity(base + width);
+            StateKey key = state.getKey();
+            for (int i = 0; i < keyWords; i++) {
+                longs.set(base + i, key.getWord(i));
+            }
+            longs.set(base + keyWords, Double.doubleToRawLongBits(state.getCumulativeCost()));
+            longs.set(base + keyWords + 1, Double.doubleToRawLongBits(state.getHeuristicCost()));
+            longs.set(base + keyWords + 2, parent);
+            longs.set(base + keyWords + 3, Double.doubleToRawLongBits(state.getOperationCost()));
+            longs.set(base + keyWords + 4, ((long) state.getReferenceIndex() << 32) | (state.getSubjectIndex() & 0xFFFFFFFFL));
+            EditOperation.OperationType type = state.getOperationType();
+            longs.set(base + keyWords + 5, type == null ? 0 : type.ordinal() + 1);
+            return count++;
+        }
+
+        StateKey key(long id, StateKey template) {
+            long[] words = new long[keyWords];
+            long base = id * width;
+            for (int i = 0; i < keyWords; i++) {
+                words[i] = longs.get(base + i);
+            }
+            return StateKey.fromWords(words, template);
+        }
+
+        double g(long id) {
+            return Double.longBitsToDouble(longs.get(id * width + keyWords));
+        }
+
+        double h(long id) {
+            return Double.longBitsToDouble(longs.get(id * width + keyWords + 1));
+        }
+
+        long parent(long id) {
+            return longs.get(id * width + keyWords + 2);
+        }
+
+        double operationCost(long id) {
+            return Double.longBitsToDouble(longs.get(id * width + keyWords + 3));
+        }
+
+        int referenceIndex(long id) {
+            return (int) (longs.get(id * width + keyWords + 4) >> 32);
+        }
+
+        int subjectIndex(long id) {
+            return (int) longs.get(id * width + keyWords + 4);
+        }
+
+        EditOperation.OperationType type(long id) {
+            return TYPES[(int) longs.get(id * width + keyWords + 5) - 1];
+        }
+    }
+
+    /**
+     * Best g-value per key, with linear probing. A slot holds the key words and the
+     * complement of the g-value's bits, so that the all-zero slot of a fresh page
+     * means empty (the complement of a real double is never 0).
+     */
+    private final class KeyTable {
+        private final int keyWords;
+        private final int width;
+        private PagedLongs slots;
+        private long capacity;
+        private long size;
+
+        KeyTable(int keyWords) {
+            this.keyWords = keyWords;
+            this.width = keyWords + 1;
+            this.capacity = INITIAL_TABLE_SLOTS;
+            this.slots = allocate(capacity);
+        }
+
+        private PagedLongs allocate(long slotCount) {
+            long length = slotCount * width;
+            return 8 * length <= heapBudgetBytes / 2
+                ? PagedLongs.onHeap(length, TABLE_PAGE_SHIFT)
+                : PagedLongs.mapped(length, TABLE_PAGE_SHIFT, spill);
+        }
+
+        // Records g for the key if it improves on the known one; false if it does not.
+        boolean offer(StateKey key, double g) {
+            long slot = find(key);
+            long stored = slots.get(slot * width + keyWords);
+            if (stored != 0 && Double.longBitsToDouble(~stored) <= g) {
+                return false;
+            }
+            if (stored == 0) {
+                for (int i = 0; i < keyWords; i++) {
+                    slots.set(slot * width + i, key.getWord(i));
+                }
+                size++;
+            }
+            slots.set(slot * width + keyWords, ~Double.doubleToRawLongBits(g));
+            if (2 * size > capacity) {
+                grow();
+            }
+            return true;
+        }
+
+        // True if a cheaper g than the given one is recorded for the key.
+        boolean isSuperseded(StateKey key, double g) {
+            long stored = slots.get(find(key) * width + keyWords);
+            return stored != 0 && Double.longBitsToDouble(~stored) < g;
+        }
+
+        // The key's slot, or the empty slot where it belongs.
+        private long find(StateKey key) {
+            long mask = capacity - 1;
+            long slot = hash(key) & mask;
+            while (true) {
+                long base = slot * width;
+                if (slots.get(base + keyWords) == 0 || matches(base, key)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private boolean matches(long base, StateKey key) {
+            for (int i = 0; i < keyWords; i++) {
+                if (slots.get(base + i) != key.getWord(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long hash(StateKey key) {
+            long h = keyWords;
+            for (int i = 0; i < keyWords; i++) {
+                h = GraphFingerprint.mix(h ^ key.getWord(i));
+            }
+            return h;
+        }
+
+        private void grow() {
+            PagedLongs old = slots;
+            long oldCapacity = capacity;
+            capacity *= 2;
+            slots = allocate(capacity);
+            long[] words = new long[keyWords];
+            for (long slot = 0; slot < oldCapacity; slot++) {
+                long base = slot * width;
+                long stored = old.get(base + keyWords);
+                if (stored == 0) {
+                    continue;
+                }
+                for (int i = 0; i < keyWords; i++) {
+                    words[i] = old.get(base + i);
+                }
+                long target = findWords(words);
+                for (int i = 0; i < keyWords; i++) {
+                    slots.set(target * width + i, words[i]);
+                }
+                slots.set(target * width + keyWords, stored);
+            }
+            old.release();
+        }
+
+        // Free slot for words known not to be in the table yet.
+        private long findWords(long[] words) {
+            long h = keyWords;
+            for (long word : words) {
+                h = GraphFingerprint.mix(h ^ word);
+            }
+            long mask = capacity - 1;
+            long slot = h & mask;
+            while (slots.get(slot * width + keyWords) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+    }
+
+    // Record ids by f-value; see the class comment for spilling.
+    private final class OpenBuckets {
+        private final TreeMap<Double, Bucket> buckets = new TreeMap<>();
+        // Spilled ids of all buckets, appended run by run; runs are never rewritten.
+        private PagedLongs spillLog;
+        private long spillLength;
+        private long size;
+        private long heapIds;
+
+        void add(double f, long id) {
+            buckets.computeIfAbsent(f, k -> new Bucket()).push(id);
+            size++;
+            heapIds++;
+        }
+
+        // Removes an id of the lowest f-value: the newest one on the heap, else of the newest run.
+        long poll() {
+            Bucket bucket = buckets.firstEntry().getValue();
+            long id;
+            if (bucket.top > 0) {
+                id = bucket.ids[--bucket.top];
+                heapIds--;
+            } else {
+                long[] run = bucket.runs.peek();
+                id = spillLog.get(--run[1]);
+                if (run[1] == run[0]) {
+                    bucket.runs.pop();
+                }
+            }
+            if (bucket.isEmpty()) {
+                buckets.pollFirstEntry();
+            }
+            size--;
+            return id;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long size() {
+            return size;
+        }
+
+        double lowestEstimatedTotalCost() {
+            return buckets.isEmpty() ? Double.POSITIVE_INFINITY : buckets.firstKey();
+        }
+
+        // Estimated heap use of the ids, ignoring array slack.
+        private long heapBytes() {
+            return 8 * heapIds + BUCKET_OVERHEAD * buckets.size();
+        }
+
+        // Spills the heap ids of the highest buckets once the open list outgrows its half of the budget.
+        void spillIfNeeded() {
+            if (heapBytes() <= heapBudgetBytes / 2) {
+                return;
+            }
+            long target = heapBudgetBytes / 4;
+            long spilled = 0;
+            // The lowest bucket stays: it is expanded next.
+            for (Bucket bucket : buckets.tailMap(buckets.firstKey(), false).descendingMap().values()) {
+                if (heapBytes() <= target) {
+                    break;
+                }
+                if (bucket.top == 0) {
+                    continue;
+                }
+                ensureSpillCapacity(spillLength + bucket.top);
+                long start = spillLength;
+                for (int i = 0; i < bucket.top; i++) {
+                    spillLog.set(spillLength++, bucket.ids[i]);
+                }
+                bucket.runs.push(new long[] {start, spillLength});
+                spilled += bucket.top;
+                heapIds -= bucket.top;
+                bucket.top = 0;
+                bucket.ids = new long[Bucket.INITIAL_SIZE];
+            }
+            if (spilled > 0) {
+                statistics.countSpilled(spilled);
+            }
+        }
+
+        private void ensureSpillCapacity(long length) {
+            if (spillLog == null) {
+                spillLog = PagedLongs.mapped(length, SPILL_PAGE_SHIFT, spill);
+            }
+            spillLog.ensureCapacity(length);
+        }
+    }
+
+    private static final class Bucket {
+        static final int INITIAL_SIZE = 4;
+
+        long[] ids = new long[INITIAL_SIZE];
+        int top;
+        // Spilled runs as {start, end} in the spill log, newest first.
+        final Deque<long[]> runs = new ArrayDeque<>();
+
+        void push(long id) {
+            if (top == ids.length) {
+                long[] grown = new long[2 * ids.length];
+                System.arraycopy(ids, 0, grown, 0, top);
+                ids = grown;
+            }
+            ids[top++] = id;
+        }
+
+        boolean isEmpty() {
+            return top == 0 && runs.isEmpty();
+        }
+    }
+}
@@ -1,234 +1,1018 @@
 package com.example;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.apache.commons.text.similarity.LevenshteinDistance;
 import org.jgrapht.Graph;
 
 public class GraphEditDistanceCalculator {
-    private static final double INSERTION_COST = 10.0;
-    private static final double DELETION_COST = 10.0;
+    // Most promising first: lowest f-value, ties broken by the lower estimate.
+    private static final Comparator<EditState> BY_ESTIMATED_TOTAL_COST = (s1, s2) -> {
+        int byTotal = Double.compare(s1.getEstimatedTotalCost(), s2.getEstimatedTotalCost());
+        return byTotal != 0 ? byTotal : Double.compare(s1.getHeuristicCost(), s2.getHeuristicCost());
+    };
 
-    // Main method to compute the GED using A* search.
+    private CostModel costModel = CostModel.DEFAULT;
+    private Engine engine = Engine.A_STAR;
+    private BranchingMode branchingMode = BranchingMode.FULL;
+    private Heuristic heuristic = new AssignmentHeuristic();
+    private OpenListType openListType = OpenListType.AUTO;
+    private SearchMode searchMode = SearchMode.OPTIMAL;
+    private double weight = 1.5;
+    private int beamWidth = 100;
+    private long timeBudgetMillis;
+    private long nodeBudget;
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+    private boolean kernelization = true;
+    private boolean parallelComponents;
+    private LabelDistanceService labelDistances = LabelDistanceService.shared();
+    private SearchListener searchListener;
+    private long progressInterval = 4096;
+    private long memoryBudgetBytes;
+    private Path spillDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+
+    public CostModel getCostModel() {
+        return costModel;
+    }
+
+    public void setCostModel(CostModel costModel) {
+        this.costModel = costModel;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    public BranchingMode getBranchingMode() {
+        return branchingMode;
+    }
+
+    public void setBranchingMode(BranchingMode branchingMode) {
+        this.branchingMode = branchingMode;
+    }
+
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    // The heuristic must be admissible for the result to stay optimal.
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public OpenListType getOpenListType() {
+        return openListType;
+    }
+
+    public void setOpenListType(OpenListType openListType) {
+        this.openListType = openListType;
+    }
+
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
+
+    public void setSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    // Heuristic weight w >= 1 of the WEIGHTED and ANYTIME modes.
+    public void setWeight(double weight) {
+        if (weight < 1.0) {
+            throw new IllegalArgumentException("Weight must be at least 1, got " + weight);
+        }
+        this.weight = weight;
+    }
+
+    public int getBeamWidth() {
+        return beamWidth;
+    }
+
+    // Number of states kept per level in BEAM mode.
+    public void setBeamWidth(int beamWidth) {
+        if (beamWidth < 1) {
+            throw new IllegalArgumentException("Beam width must be positive, got " + beamWidth);
+        }
+        this.beamWidth = beamWidth;
+    }
+
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    /**
+     * Wall-clock limit per search, 0 for none. When it runs out, the search returns
+     * the best complete state found so far (or a greedy completion of the most
+     * promising one) and reports the result as not proven optimal.
+     */
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    public long getNodeBudget() {
+        return nodeBudget;
+    }
+
+    // Limit on expanded states per search, 0 for none; handled like the time budget.
+    public void setNodeBudget(long nodeBudget) {
+        this.nodeBudget = nodeBudget;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    // Worker threads of the PARALLEL_A_STAR engine; defaults to the number of processors.
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive, got " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    public boolean isKernelization() {
+        return kernelization;
+    }
+
+    /**
+     * Whether provably optimal zero-cost matches are fixed and the rest is split
+     * into independent components before searching (on by default). Each component
+     * gets its own search, with its own budgets.
+     */
+    public void setKernelization(boolean kernelization) {
+        this.kernelization = kernelization;
+    }
+
+    public boolean isParallelComponents() {
+        return parallelComponents;
+    }
+
+    // Solve the components of a kernelized comparison in parallel on the common pool.
+    public void setParallelComponents(boolean parallelComponents) {
+        this.parallelComponents = parallelComponents;
+    }
+
+    public LabelDistanceService getLabelDistanceService() {
+        return labelDistances;
+    }
+
+    // Label distances are cached across calculators in the shared service by default.
+    public void setLabelDistanceService(LabelDistanceService labelDistances) {
+        this.labelDistances = labelDistances;
+    }
+
+    public SearchListener getSearchListener() {
+        return searchListener;
+    }
+
+    // Receives progress samples of every search; null (the default) for none.
+    public void setSearchListener(SearchListener searchListener) {
+        this.searchListener = searchListener;
+    }
+
+    public long getProgressInterval() {
+        return progressInterval;
+    }
+
+    // Number of expansions between two samples passed to the search listener.
+    public void setProgressInterval(long progressInterval) {
+        if (progressInterval < 1) {
+            throw new IllegalArgumentException("Progress interval must be at least 1, got " + progressInterval);
+        }
+        this.progressInterval = progressInterval;
+    }
+
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    /**
+     * Heap bytes an optimal A* search may use for its open list and duplicate
+     * table before spilling them to memory-mapped files; 0 (the default) keeps
+     * the whole search on the heap. Only SearchMode.OPTIMAL uses the bound.
+     */
+    public void setMemoryBudgetBytes(long memoryBudgetBytes) {
+        if (memoryBudgetBytes < 0) {
+            throw new IllegalArgumentException("Memory budget must not be negative, got " + memoryBudgetBytes);
+        }
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    public Path getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    // Where a memory-bounded search creates its spill files; the system temp directory by default.
+    public void setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public double getInsertionCost() {
+        return costModel.getInsertionCost();
+    }
+
+    public double getDeletionCost() {
+        return costModel.getDeletionCost();
+    }
+
+    // Main method to compute the GED using A* search; no operations are rendered.
     public double computeEditDistance(Graph<String, TransitionEdge> referenceGraph,
         Graph<String, TransitionEdge> subjectGraph) {
-        EditState initialState = initializeState(referenceGraph, subjectGraph);
-        EditState goalState = aStarSearch(initialState, referenceGraph, subjectGraph);
-        return goalState.getCumulativeCost();
+        return computeEditDistance(GraphSnapshot.of(referenceGraph), GraphSnapshot.of(subjectGraph));
     }
 
-    // Main method to compute a detailed MatchResult.
+    // Same as above on snapshots, so that a graph compared many times is only copied once.
+    public double computeEditDistance(GraphSnapshot reference, GraphSnapshot subject) {
+        SearchContext context = createContext(reference, subject);
+        return solveAll(context, false, null).getTotalCost();
+    }
+
+    /**
+     * Main method to compute a detailed MatchResult: the distance and the edit
+     * operations from a single search. Use this instead of calling
+     * computeEditDistance as well when both are needed.
+     */
     public GraphMatchResult computeDetailedEditDistance(Graph<String, TransitionEdge> referenceGraph,
                                                    Graph<String, TransitionEdge> subjectGraph) {
-        EditState initialState = initializeState(referenceGraph, subjectGraph);
-        EditState goalState = aStarSearch(initialState, referenceGraph, subjectGraph);
-        // Here, we just collect the operations by traversing previous states.
+        return computeDetailedEditDistance(GraphSnapshot.of(referenceGraph), GraphSnapshot.of(subjectGraph));
+    }
+
+    public GraphMatchResult computeDetailedEditDistance(GraphSnapshot reference, GraphSnapshot subject) {
+        SearchContext context = createContext(reference, subject);
+        return solveAll(context, true, null);
+    }
+
+    // Solves the comparison, kernelized into independent parts unless disabled, and
+    // merges the parts. Operations are only rendered if asked for. With a cache, parts
+    // solved by the previous computation are taken over and the rest warm-started.
+    GraphMatchResult solveAll(SearchContext context, boolean render, ComponentCache cache) {
+        if (engine == Engine.VERTEX_MAPPING) {
+            // The cost of a pair depends on the mapping, so the kernel's fixed costs do not apply.
+            return solveByStateMapping(context, render);
+        }
+        List<EditOperation> operations = new ArrayList<>();
+        double totalCost = 0.0;
+        double lowerBound = 0.0;
+        boolean optimal = true;
+
+        SearchStatistics statistics = context.getStatistics();
+        List<SearchContext> parts = new ArrayList<>();
+        Kernel kernel = null;
+        if (kernelization) {
+            long start = System.nanoTime();
+            CostMatrix costs = context.getCostMatrix();
+            kernel = Kernel.reduce(costs, context.getReferenceEdgeCount(), context.getSubjectEdgeCount(), costModel);
+            statistics.addPhaseNanos(SearchStatistics.Phase.KERNEL, System.nanoTime() - start);
+            for (int[] pair : kernel.getFixedPairs()) {
+                double cost = costs.pairCost(pair[0], pair[1]);
+                totalCost += cost;
+                lowerBound += cost;
+                if (cache != null) {
+                    cache.recordMatch(context.getReferenceEdges().get(pair[0]), context.getSubjectEdges().get(pair[1]));
+                }
+                if (render) {
+                    EditOperation.OperationType type = costs.substitution(pair[0], pair[1]) <= costs.reassignment(pair[0], pair[1])
+                        ? EditOperation.OperationType.SUBSTITUTION : EditOperation.OperationType.REASSIGNMENT;
+                    operations.add(describe(type, pair[0], pair[1], cost, context));
+                }
+            }
+            for (Kernel.Component component : kernel.getComponents()) {
+                parts.add(context.restrict(component.getReferences(), component.getSubjects()));
+            }
+        } else {
+            parts.add(context);
+        }
+
+        SearchOutcome[] outcomes = new SearchOutcome[parts.size()];
+        List<SearchContext> unsolved = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) {
+            ComponentCache.Entry known = cache == null ? null : cache.lookup(parts.get(i));
+            if (known != null) {
+                // Renders against the context its states were created in.
+                parts.set(i, known.getPart());
+                outcomes[i] = known.getOutcome();
+            } else {
+                unsolved.add(parts.get(i));
+            }
+        }
+        List<SearchOutcome> solved = parallelComponents
+            ? unsolved.parallelStream().map(part -> solve(part, cache)).collect(Collectors.toList())
+            : unsolved.stream().map(part -> solve(part, cache)).collect(Collectors.toList());
+        for (int i = 0, j = 0; i < parts.size(); i++) {
+            if (outcomes[i] == null) {
+                outcomes[i] = solved.get(j++);
+                if (parts.get(i) != context) {
+                    statistics.merge(parts.get(i).getStatistics());
+                }
+            }
+        }
+
+        long renderStart = System.nanoTime();
+        for (int i = 0; i < parts.size(); i++) {
+            SearchOutcome outcome = outcomes[i];
+            totalCost += outcome.getGoalState().getCumulativeCost();
+            lowerBound += outcome.getLowerBound();
+            optimal &= outcome.isOptimal();
+            if (cache != null) {
+                cache.record(parts.get(i), outcome);
+            }
+            if (render) {
+                operations.addAll(reconstructOperations(outcome.getGoalState(), parts.get(i)));
+            }
+        }
+
+        if (kernel != null) {
+            for (int r : kernel.getIsolatedReferences()) {
+                totalCost += getDeletionCost();
+                lowerBound += getDeletionCost();
+                if (render) {
+                    operations.add(describe(EditOperation.OperationType.DELETION, r, -1, getDeletionCost(), context));
+                }
+            }
+            for (int s : kernel.getIsolatedSubjects()) {
+                totalCost += getInsertionCost();
+                lowerBound += getInsertionCost();
+                if (render) {
+                    operations.add(describe(EditOperation.OperationType.INSERTION, -1, s, getInsertionCost(), context));
+                }
+            }
+        }
+        if (render) {
+            statistics.addPhaseNanos(SearchStatistics.Phase.RENDERING, System.nanoTime() - renderStart);
+        }
+        if (cache != null) {
+            cache.commit();
+        }
+        return new GraphMatchResult(totalCost, operations, optimal, lowerBound, Collections.<String, String>emptyMap(),
+            statistics);
+    }
+
+    private GraphMatchResult solveByStateMapping(SearchContext context, boolean render) {
+        long start = System.nanoTime();
+        VertexMappingSearch.Result result = new VertexMappingSearch(context, this, newBudget(context)).run();
+        long renderStart = System.nanoTime();
+        context.getStatistics().addPhaseNanos(SearchStatistics.Phase.SEARCH, renderStart - start);
+        List<EditOperation> operations = new ArrayList<>();
+        boolean[] inserted = new boolean[context.getSubjectEdgeCount()];
+        Arrays.fill(inserted, true);
+        double totalCost = 0.0;
+        for (int r = 0; r < context.getReferenceEdgeCount(); r++) {
+            int s = result.subjectOf(r);
+            if (s < 0) {
+                totalCost += getDeletionCost();
+                if (render) {
+                    operations.add(describe(EditOperation.OperationType.DELETION, r, -1, getDeletionCost(), context));
+                }
+            } else {
+                inserted[s] = false;
+                double cost = result.matchCost(r);
+                totalCost += cost;
+                if (render) {
+                    operations.add(describe(result.matchType(r), r, s, cost, context));
+                }
+            }
+        }
+        for (int s = 0; s < inserted.length; s++) {
+            if (inserted[s]) {
+                totalCost += getInsertionCost();
+                if (render) {
+                    operations.add(describe(EditOperation.OperationType.INSERTION, -1, s, getInsertionCost(), context));
+                }
+            }
+        }
+        if (render) {
+            context.getStatistics().addPhaseNanos(SearchStatistics.Phase.RENDERING, System.nanoTime() - renderStart);
+        }
+        return new GraphMatchResult(totalCost, operations, result.isOptimal(),
+            Math.min(result.getLowerBound(), totalCost), result.getStateMapping(), context.getStatistics());
+    }
+
+    // Collects the operations by traversing previous states; only here are they rendered.
+    private List<EditOperation> reconstructOperations(EditState goalState, SearchContext context) {
         List<EditOperation> operations = new ArrayList<>();
         EditState current = goalState;
         while (current.getPreviousState() != null) {
-            operations.add(current.getOperation());
+            operations.add(describe(current, context));
             current = current.getPreviousState();
         }
         Collections.reverse(operations);
-        return new GraphMatchResult(goalState.getCumulativeCost(), operations);
+        return operations;
     }
 
-    private EditState initializeState(Graph<String, TransitionEdge> referenceGraph,
-                                  Graph<String, TransitionEdge> subjectGraph) {
+    /**
+     * Rough size of the search space of a prepared context: the number of leaves
+     * of the fixed-order search tree, a factor of (candidates + 1) per reference
+     * edge, summed over the kernel's independent parts when kernelization is on.
+     * Saturates at Long.MAX_VALUE.
+     */
+    long estimateStateSpace(SearchContext context) {
+        CostMatrix costs = context.getCostMatrix();
+        List<int[]> parts = new ArrayList<>();
+        if (kernelization && engine != Engine.VERTEX_MAPPING) {
+            Kernel kernel = Kernel.reduce(costs, context.getReferenceEdgeCount(), context.getSubjectEdgeCount(), costModel);
+            for (Kernel.Component component : kernel.getComponents()) {
+                parts.add(component.getReferences());
+            }
+        } else {
+            int[] all = new int[context.getReferenceEdgeCount()];
+            Arrays.setAll(all, r -> r);
+            parts.add(all);
+        }
+        double total = 1.0;
+        for (int[] references : parts) {
+            double leaves = 1.0;
+            for (int r : references) {
+                leaves *= costs.candidates(r).length + 1;
+            }
+            total += leaves;
+        }
+        return (long) Math.min(total, Long.MAX_VALUE);
+    }
+
+    // Package-private, like initializeState and generateNeighbors, for the benchmarks.
+    SearchContext createContext(GraphSnapshot reference, GraphSnapshot subject) {
+    long start = System.nanoTime();
     // Filter out edges that are COMMON from the reference graph.
-    referenceGraph.edgeSet().forEach(edge ->
-    System.out.println(edge + " type: " + edge.getType()));
-    
-    List<TransitionEdge> unmatchedRef = referenceGraph.edgeSet().stream()
-            .filter(edge -> edge.getType() != DiffType.COMMON)
-            .collect(Collectors.toList());            
-    
+    int[] unmatchedRef = groupIdentical(reference, nonCommonEdges(reference));
+
     // Filter out edges that are COMMON from the subject graph.
-    List<TransitionEdge> unmatchedSubj = subjectGraph.edgeSet().stream()
-            .filter(edge -> edge.getType() != DiffType.COMMON)
-            .collect(Collectors.toList());
-         
-    // Start with an empty mapping and zero cumulative cost.
-    return new EditState(new HashMap<>(), 0.0, unmatchedRef, unmatchedSubj, null, null);
-    }
-
-
-    // A* search method that returns the goal state (complete EditState).
-    private EditState aStarSearch(EditState initialState,
-                              Graph<String, TransitionEdge> referenceGraph,
-                              Graph<String, TransitionEdge> subjectGraph) {
-        // Initialize the open list (priority queue) and closed set.
-        // The comparator should sort states by (cumulativeCost + heuristicCost)
-        PriorityQueue<EditState> openList = new PriorityQueue<>((s1, s2) ->
-            Double.compare(s1.getCumulativeCost() + heuristicCost(s1),
-                        s2.getCumulativeCost() + heuristicCost(s2))
-        );
-        Set<EditState> closedSet = new HashSet<>();
+    int[] unmatchedSubj = groupIdentical(subject, nonCommonEdges(subject));
+
+    SearchContext context = new SearchContext(reference, subject, unmatchedRef, unmatchedSubj);
+    CostMatrix costs = CostMatrix.build(context, this);
+    context.setCostMatrix(costs);
+    context.getStatistics().countCostPairs((long) unmatchedRef.length * unmatchedSubj.length, costs.getLabelDistanceCount());
+    context.getStatistics().addPhaseNanos(SearchStatistics.Phase.SETUP, System.nanoTime() - start);
+    return context;
+    }
+
+    private static int[] nonCommonEdges(GraphSnapshot snapshot) {
+        int[] edges = new int[snapshot.getEdgeCount()];
+        int size = 0;
+        for (int e = 0; e < edges.length; e++) {
+            if (snapshot.type(e) != DiffType.COMMON) {
+                edges[size++] = e;
+            }
+        }
+        return Arrays.copyOf(edges, size);
+    }
+
+    // Orders the edges so that identical ones (same endpoints, labels and type) are
+    // adjacent, keeping the order in which each kind first appears. The search
+    // relies on this to treat such edges as one class with a multiplicity.
+    private static int[] groupIdentical(GraphSnapshot snapshot, int[] edges) {
+        Map<List<Integer>, List<Integer>> classes = new LinkedHashMap<>();
+        for (int edge : edges) {
+            List<Integer> signature = Arrays.asList(snapshot.source(edge), snapshot.target(edge),
+                snapshot.input(edge), snapshot.output(edge), snapshot.type(edge).ordinal());
+            classes.computeIfAbsent(signature, k -> new ArrayList<>()).add(edge);
+        }
+        int[] grouped = new int[edges.length];
+        int size = 0;
+        for (List<Integer> members : classes.values()) {
+            for (int edge : members) {
+                grouped[size++] = edge;
+            }
+        }
+        return grouped;
+    }
+
+    // Runs the configured engine on a prepared context, warm-started from the cache if given.
+    private SearchOutcome solve(SearchContext context, ComponentCache cache) {
+        SearchStatistics statistics = context.getStatistics();
+        long start = System.nanoTime();
+        if (engine == Engine.BIPARTITE) {
+            // The edit path is built directly, so the costly heuristic is not prepared.
+            context.setEstimator(new ZeroHeuristic().prepare(context, this));
+            SearchOutcome outcome = bipartiteSolve(context);
+            statistics.addPhaseNanos(SearchStatistics.Phase.SEARCH, System.nanoTime() - start);
+            return outcome;
+        }
+        context.setEstimator(heuristic.prepare(context, this));
+        if (cache != null) {
+            context.setIncumbent(warmStart(context, cache));
+        }
+        long searchStart = System.nanoTime();
+        statistics.addHeuristicNanos(searchStart - start);
+        statistics.addPhaseNanos(SearchStatistics.Phase.HEURISTIC, searchStart - start);
+        SearchOutcome outcome;
+        if (engine == Engine.BRANCH_AND_BOUND) {
+            outcome = branchAndBound(initializeState(context), context);
+        } else if (engine == Engine.PARALLEL_A_STAR) {
+            EditState initialState = initializeState(context);
+            outcome = new ParallelAStar(state -> generateNeighbors(state, context),
+                () -> createOpenList(context, 1.0), threadCount, context.getControl())
+                .run(initialState, context.getIncumbent(), statistics);
+            if (outcome == null) {
+                // Stopped before any complete state was found.
+                outcome = new SearchOutcome(completeGreedily(initialState, context), initialState.getEstimatedTotalCost());
+            }
+        } else {
+            outcome = search(initializeState(context), context);
+        }
+        statistics.addPhaseNanos(SearchStatistics.Phase.SEARCH, System.nanoTime() - searchStart);
+        return outcome;
+    }
+
+    // The previous mapping of the part's edges as a complete edit path: a reference
+    // edge keeps its subject edge if that is still present and a candidate, and is
+    // deleted otherwise; the subject edges left over are inserted.
+    private EditState warmStart(SearchContext context, ComponentCache cache) {
+        Map<TransitionEdge, Integer> subjectIndex = new HashMap<>();
+        List<TransitionEdge> subjectEdges = context.getSubjectEdges();
+        for (int s = 0; s < subjectEdges.size(); s++) {
+            subjectIndex.put(subjectEdges.get(s), s);
+        }
+        CostMatrix costs = context.getCostMatrix();
+        double deleteAndInsert = getDeletionCost() + getInsertionCost();
+        EditState state = EditState.initial(context, context.getEstimator().initialEstimate());
+        List<TransitionEdge> referenceEdges = context.getReferenceEdges();
+        for (int r = 0; r < referenceEdges.size(); r++) {
+            Integer s = subjectIndex.get(cache.previousMatch(referenceEdges.get(r)));
+            if (s != null && !state.getKey().isSubjectConsumed(s) && costs.pairCost(r, s) < deleteAndInsert) {
+                state = match(state, r, s, context);
+            } else {
+                state = delete(state, r, context);
+            }
+        }
+        for (int s = state.nextUnmatchedSubject(0); s >= 0; s = state.nextUnmatchedSubject(s + 1)) {
+            state = insert(state, s, context);
+        }
+        return state;
+    }
+
+    private SearchBudget newBudget(SearchContext context) {
+        return new SearchBudget(timeBudgetMillis, nodeBudget, context.getStatistics(), searchListener, progressInterval,
+            context.getControl());
+    }
+
+    // Bipartite engine: turns the optimal edge assignment into an edit path.
+    private SearchOutcome bipartiteSolve(SearchContext context) {
+        CostMatrix costs = context.getCostMatrix();
+        int[] subjectOfReference = new BipartiteGedSolver(costs, context.getReferenceEdgeCount(),
+            context.getSubjectEdgeCount(), getDeletionCost(), getInsertionCost()).solve();
+        EditState state = initializeState(context);
+        for (int r = 0; r < subjectOfReference.length; r++) {
+            int s = subjectOfReference[r];
+            state = s < 0 ? delete(state, r, context) : match(state, r, s, context);
+        }
+        for (int s = state.nextUnmatchedSubject(0); s >= 0; s = state.nextUnmatchedSubject(s + 1)) {
+            state = insert(state, s, context);
+        }
+        // Every edit cost involves one edge pair only, so the optimal assignment is an
+        // optimal edit path and its cost is also the lower bound.
+        return new SearchOutcome(state, state.getCumulativeCost());
+    }
+
+    EditState initializeState(SearchContext context) {
+        // Start with an empty mapping and zero cumulative cost.
+        context.getStatistics().countHeuristicEvaluation();
+        return EditState.initial(context, context.getEstimator().initialEstimate());
+    }
+
+
+    // Runs the configured search mode.
+    private SearchOutcome search(EditState initialState, SearchContext context) {
+        if (searchMode == SearchMode.BEAM) {
+            return beamSearch(initialState, context);
+        }
+        if (memoryBudgetBytes > 0 && searchMode == SearchMode.OPTIMAL) {
+            return new ExternalMemoryAStar(context, state -> generateNeighbors(state, context),
+                state -> completeGreedily(state, context), newBudget(context), memoryBudgetBytes, spillDirectory)
+                .run(initialState);
+        }
+        return aStarSearch(initialState, context);
+    }
+
+    // A* search method that returns the goal state (complete EditState). Also covers
+    // weighted A* (f = g + w*h) and the anytime variant, which keeps improving its
+    // best complete state until the open list is exhausted or the budget runs out.
+    private SearchOutcome aStarSearch(EditState initialState, SearchContext context) {
+        double w = searchMode == SearchMode.OPTIMAL ? 1.0 : weight;
+        boolean anytime = searchMode == SearchMode.ANYTIME;
+        SearchBudget budget = newBudget(context);
+
+        // Initialize the open list (ordered by cumulativeCost + w * heuristicCost) and the transposition table.
+        OpenList openList = createOpenList(context, w);
+        SearchStatistics statistics = context.getStatistics();
+        // Keeps the best g-value per canonical key, so the same partial matching
+        // reached in a different order is only expanded once.
+        TranspositionTable transpositions = new TranspositionTable();
+        // Best complete state found so far (anytime mode) or known in advance.
+        EditState incumbent = context.getIncumbent();
         
+        transpositions.offer(initialState);
         openList.add(initialState);
         
         while (!openList.isEmpty()) {
+            if (budget.isExhausted()) {
+                return interrupted(incumbent, openList, context);
+            }
             EditState currentState = openList.poll();
+
+            // A cheaper path to the same key was queued after this one.
+            if (transpositions.isSuperseded(currentState)) {
+                statistics.countDuplicate();
+                continue;
+            }
+            // Cannot improve on the best complete state.
+            if (incumbent != null && currentState.getEstimatedTotalCost() >= incumbent.getCumulativeCost()) {
+                statistics.countPruned(1);
+                continue;
+            }
             
             // Check if currentState is the goal state.
             if (isGoalState(currentState)) {
-                return currentState; // Found the optimal edit path.
+                if (anytime) {
+                    incumbent = currentState;
+                    continue;
+                }
+                // Optimal for w == 1; for weighted A* within a factor w of the optimum.
+                double cost = currentState.getCumulativeCost();
+                return new SearchOutcome(currentState, Math.max(cost / w, Math.min(cost, openList.lowestEstimatedTotalCost())));
             }
             
-            closedSet.add(currentState);
-            
+            budget.countExpansion();
             // Generate neighbor states using your neighbor generation function.
-            List<EditState> neighbors = generateNeighbors(currentState, referenceGraph, subjectGraph);
+            List<EditState> neighbors = generateNeighbors(currentState, context);
+            statistics.countGenerated(neighbors.size());
             for (EditState neighbor : neighbors) {
-                if (closedSet.contains(neighbor)) {
-                    continue; // Skip if already processed.
+                if (incumbent != null && neighbor.getEstimatedTotalCost() >= incumbent.getCumulativeCost()) {
+                    statistics.countPruned(1);
+                    continue;
+                }
+                if (!transpositions.offer(neighbor)) {
+                    statistics.countDuplicate();
+                    continue; // Skip if the key is already reached at least as cheaply.
                 }
                 openList.add(neighbor);
             }
+            statistics.observeOpenListSize(openList.size());
+        }
+
+        if (incumbent != null) {
+            // Everything that could beat the incumbent has been ruled out.
+            return new SearchOutcome(incumbent, incumbent.getCumulativeCost());
         }
-        
         throw new RuntimeException("No valid edit path found.");
     }
 
+    // Budget ran out: hand back the best complete state, or complete the most
+    // promising open state greedily. The lowest open f-value is still a proven bound.
+    private SearchOutcome interrupted(EditState incumbent, OpenList openList, SearchContext context) {
+        double lowerBound = openList.lowestEstimatedTotalCost();
+        if (incumbent != null) {
+            return new SearchOutcome(incumbent, Math.min(lowerBound, incumbent.getCumulativeCost()));
+        }
+        return new SearchOutcome(completeGreedily(openList.poll(), context), lowerBound);
+    }
 
-    // Generates the neighbor states from the given current state.
-    private List<EditState> generateNeighbors(EditState currentState,
-                                            Graph<String, TransitionEdge> referenceGraph,
-                                            Graph<String, TransitionEdge> subjectGraph) {
-        List<EditState> neighbors = new ArrayList<>();
+    // Beam search: expands level by level and keeps only the beamWidth states with
+    // the lowest f-value per level.
+    private SearchOutcome beamSearch(EditState initialState, SearchContext context) {
+        SearchBudget budget = newBudget(context);
+        double rootBound = initialState.getEstimatedTotalCost();
+        if (isGoalState(initialState)) {
+            return new SearchOutcome(initialState, 0.0);
+        }
+        EditState best = context.getIncumbent();
+        boolean exhaustive = true;
+        List<EditState> level = Collections.singletonList(initialState);
+        SearchStatistics statistics = context.getStatistics();
 
-        // Generate neighbor states using edge substitution.
-        for (TransitionEdge refEdge : currentState.getUnmatchedReferenceEdges()) {
-            for (TransitionEdge subjEdge : currentState.getUnmatchedSubjectEdges()) {
-                // Calculate the substitution cost.
-                double subCost = edgeSubstitutionCost(referenceGraph, subjectGraph, refEdge, subjEdge);
-                
-                // Create a new mapping by matching refEdge with subjEdge.
-                Map<TransitionEdge, TransitionEdge> newMapping = new HashMap<>(currentState.getMapping());
-                newMapping.put(refEdge, subjEdge);
-                
-                // Create new unmatched lists by removing the matched edges.
-                List<TransitionEdge> newUnmatchedRef = new ArrayList<>(currentState.getUnmatchedReferenceEdges());
-                newUnmatchedRef.remove(refEdge);
-                List<TransitionEdge> newUnmatchedSubj = new ArrayList<>(currentState.getUnmatchedSubjectEdges());
-                newUnmatchedSubj.remove(subjEdge);
-
-                // Retrieve endpoints from the reference graph.
-                String refSource = referenceGraph.getEdgeSource(refEdge);
-                String refTarget = referenceGraph.getEdgeTarget(refEdge);
-                
-                double newCost = currentState.getCumulativeCost() + subCost;
-                EditOperation op = new EditOperation(
-                    EditOperation.OperationType.SUBSTITUTION,
-                    "Substitute edge " + refEdge + " with " + subjEdge + " (" + refSource + " -> " + refTarget + ")",
-                    subCost
-                );    
-                EditState neighbor = new EditState(newMapping, newCost, newUnmatchedRef, newUnmatchedSubj, currentState, op);
-                neighbors.add(neighbor);
-            }
-        }
-
-        // neighbor states using edge reassignment
-        for (TransitionEdge refEdge : currentState.getUnmatchedReferenceEdges()) {
-            for (TransitionEdge subjEdge : currentState.getUnmatchedSubjectEdges()) {
-                // Calculate the reassignment cost.
-                double reassignCost = edgeReassignmentCost(referenceGraph, subjectGraph, refEdge, subjEdge);
-                
-                // Create a new mapping by matching refEdge with subjEdge.
-                Map<TransitionEdge, TransitionEdge> newMapping = new HashMap<>(currentState.getMapping());
-                newMapping.put(refEdge, subjEdge);
-                
-                // Create new unmatched lists by removing the matched edges.
-                List<TransitionEdge> newUnmatchedRef = new ArrayList<>(currentState.getUnmatchedReferenceEdges());
-                newUnmatchedRef.remove(refEdge);
-                List<TransitionEdge> newUnmatchedSubj = new ArrayList<>(currentState.getUnmatchedSubjectEdges());
-                newUnmatchedSubj.remove(subjEdge);
-
-                // Retrieve endpoints from the graphs.
-                String refSource = referenceGraph.getEdgeSource(refEdge);
-                String refTarget = referenceGraph.getEdgeTarget(refEdge);
-                String subjSource = subjectGraph.getEdgeSource(subjEdge);
-                String subjTarget = subjectGraph.getEdgeTarget(subjEdge);
-
-                
-                double newCost = currentState.getCumulativeCost() + reassignCost;
-                EditOperation op = new EditOperation(
-                    EditOperation.OperationType.SUBSTITUTION,
-                    "Reassign edge " + refEdge + " from " + " (" + refSource + " -> " + refTarget + ")" + " to " + " (" + subjSource + " -> " + subjTarget + ")",
-                    reassignCost
-                );    
-                EditState neighbor = new EditState(newMapping, newCost, newUnmatchedRef, newUnmatchedSubj, currentState, op);
-                neighbors.add(neighbor);
+        while (!level.isEmpty()) {
+            Map<StateKey, EditState> next = new HashMap<>();
+            for (EditState state : level) {
+                if (budget.isExhausted()) {
+                    EditState result = best != null ? best : completeGreedily(state, context);
+                    return new SearchOutcome(result, rootBound);
+                }
+                budget.countExpansion();
+                List<EditState> neighbors = generateNeighbors(state, context);
+                statistics.countGenerated(neighbors.size());
+                for (EditState neighbor : neighbors) {
+                    if (isGoalState(neighbor)) {
+                        if (best == null || neighbor.getCumulativeCost() < best.getCumulativeCost()) {
+                            best = neighbor;
+                        }
+                        continue;
+                    }
+                    if (best != null && neighbor.getEstimatedTotalCost() >= best.getCumulativeCost()) {
+                        statistics.countPruned(1);
+                        continue;
+                    }
+                    EditState known = next.get(neighbor.getKey());
+                    if (known != null) {
+                        statistics.countDuplicate();
+                    }
+                    if (known == null || neighbor.getCumulativeCost() < known.getCumulativeCost()) {
+                        next.put(neighbor.getKey(), neighbor);
+                    }
+                }
             }
+            List<EditState> candidates = new ArrayList<>(next.values());
+            candidates.sort(BY_ESTIMATED_TOTAL_COST);
+            statistics.observeOpenListSize(candidates.size());
+            if (candidates.size() > beamWidth) {
+                exhaustive = false;
+                statistics.countPruned(candidates.size() - beamWidth);
+                candidates = candidates.subList(0, beamWidth);
+            }
+            level = candidates;
         }
 
+        if (best == null) {
+            throw new RuntimeException("No valid edit path found.");
+        }
+        // Without any cut the beam explored every state and the best one is optimal.
+        return new SearchOutcome(best, exhaustive ? best.getCumulativeCost() : rootBound);
+    }
+
+    // Depth-first branch and bound: walks the fixed-order tree (every path has the
+    // same depth and no state is reached twice), cheapest children first, and prunes
+    // every state whose f-value reaches the best complete state found so far. Only
+    // the child lists along the current path are kept, so no open list or
+    // transposition table grows with the search.
+    private SearchOutcome branchAndBound(EditState initialState, SearchContext context) {
+        SearchBudget budget = newBudget(context);
+        EditState incumbent = bipartiteSolve(context).getGoalState();
+        EditState known = context.getIncumbent();
+        if (known != null && known.getCumulativeCost() < incumbent.getCumulativeCost()) {
+            incumbent = known;
+        }
+        Deque<Iterator<EditState>> path = new ArrayDeque<>();
+        path.push(Collections.singletonList(initialState).iterator());
+
+        while (!path.isEmpty()) {
+            Iterator<EditState> siblings = path.peek();
+            if (!siblings.hasNext()) {
+                path.pop();
+                continue;
+            }
+            EditState state = siblings.next();
+            if (state.getEstimatedTotalCost() >= incumbent.getCumulativeCost()) {
+                // Siblings are sorted, so none of the remaining ones can do better.
+                context.getStatistics().countPruned(1);
+                path.pop();
+                continue;
+            }
+            if (isGoalState(state)) {
+                incumbent = state;
+                continue;
+            }
+            if (budget.isExhausted()) {
+                return new SearchOutcome(incumbent, initialState.getEstimatedTotalCost());
+            }
+            budget.countExpansion();
+            List<EditState> children = generateFixedOrderNeighbors(state, context);
+            context.getStatistics().countGenerated(children.size());
+            children.sort(BY_ESTIMATED_TOTAL_COST);
+            path.push(children.iterator());
+        }
+        // Everything that could beat the incumbent has been ruled out.
+        return new SearchOutcome(incumbent, incumbent.getCumulativeCost());
+    }
+
+    // Completes the state by matching every remaining reference edge with its cheapest
+    // unmatched candidate subject edge, or deleting it if it has none, then inserting the rest.
+    private EditState completeGreedily(EditState state, SearchContext context) {
+        CostMatrix costs = context.getCostMatrix();
+        for (int r = state.nextUnmatchedReference(0); r >= 0; r = state.nextUnmatchedReference(r + 1)) {
+            int bestSubject = -1;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (int s : costs.candidates(r)) {
+                if (!state.getKey().isSubjectConsumed(s) && costs.pairCost(r, s) < bestCost) {
+                    bestCost = costs.pairCost(r, s);
+                    bestSubject = s;
+                }
+            }
+            state = bestSubject < 0 ? delete(state, r, context) : match(state, r, bestSubject, context);
+        }
+        for (int s = state.nextUnmatchedSubject(0); s >= 0; s = state.nextUnmatchedSubject(s + 1)) {
+            state = insert(state, s, context);
+        }
+        return state;
+    }
+
+    // Buckets are keyed by g + h, so weighted A* always uses the heap.
+    private OpenList createOpenList(SearchContext context, double w) {
+        if (w != 1.0) {
+            return new BinaryHeapOpenList(w);
+        }
+        switch (openListType) {
+            case BUCKET:
+                return new BucketOpenList();
+            case BINARY_HEAP:
+                return new BinaryHeapOpenList();
+            default:
+                return hasIntegralCosts(context) ? new BucketOpenList() : new BinaryHeapOpenList();
+        }
+    }
+
+    // True if every f-value of this comparison is a whole number.
+    private boolean hasIntegralCosts(SearchContext context) {
+        return costModel.isIntegral()
+            && context.getCostMatrix().isIntegral()
+            && context.getEstimator().isIntegral();
+    }
+
+    // Generates the neighbor states from the given current state. Only candidate
+    // pairings are offered: matching any other pair is dominated by deleting the
+    // one edge and inserting the other, which are offered separately. Identical
+    // edges form a class, and only the first unmatched edge of each class is
+    // offered, so permutations of interchangeable edges are not branched on.
+    List<EditState> generateNeighbors(EditState currentState, SearchContext context) {
+        if (branchingMode == BranchingMode.FIXED_ORDER) {
+            return generateFixedOrderNeighbors(currentState, context);
+        }
+        List<EditState> neighbors = new ArrayList<>();
+        StateKey key = currentState.getKey();
+        CostMatrix costs = context.getCostMatrix();
+
+        // Generate neighbor states by matching an unmatched reference edge with a candidate.
+        for (int r = currentState.nextUnmatchedReference(0); r >= 0; r = currentState.nextUnmatchedReference(r + 1)) {
+            if (!isFirstOfReferenceClass(r, key, costs)) {
+                continue;
+            }
+            for (int s : costs.candidates(r)) {
+                if (!key.isSubjectConsumed(s) && isFirstOfSubjectClass(s, key, costs)) {
+                    neighbors.add(match(currentState, r, s, context));
+                }
+            }
+        }
 
         // Generate neighbor states by deleting an unmatched reference edge.
-        // For deletion: remove one unmatched reference edge.
-        for (TransitionEdge refEdge : currentState.getUnmatchedReferenceEdges()) {
-            Map<TransitionEdge, TransitionEdge> newMapping = new HashMap<>(currentState.getMapping());
-            List<TransitionEdge> newUnmatchedRef = new ArrayList<>(currentState.getUnmatchedReferenceEdges());
-            newUnmatchedRef.remove(refEdge);
-            List<TransitionEdge> unmatchedSubj = new ArrayList<>(currentState.getUnmatchedSubjectEdges());
-
-            // Retrieve endpoints from the reference graph.
-            String refSource = referenceGraph.getEdgeSource(refEdge);
-            String refTarget = referenceGraph.getEdgeTarget(refEdge);
-
-            double newCost = currentState.getCumulativeCost() + DELETION_COST;
-            // Include endpoints in the description.
-            EditOperation op = new EditOperation(
-                EditOperation.OperationType.DELETION,
-                "Delete reference edge " + refEdge + " (" + refSource + " -> " + refTarget + ")",
-                DELETION_COST
-            );
-            EditState neighbor = new EditState(newMapping, newCost, newUnmatchedRef, unmatchedSubj, currentState, op);
-            neighbors.add(neighbor);
+        for (int r = currentState.nextUnmatchedReference(0); r >= 0; r = currentState.nextUnmatchedReference(r + 1)) {
+            if (isFirstOfReferenceClass(r, key, costs)) {
+                neighbors.add(delete(currentState, r, context));
+            }
         }
 
         // For insertion: remove one unmatched subject edge.
-        for (TransitionEdge subjEdge : currentState.getUnmatchedSubjectEdges()) {
-            Map<TransitionEdge, TransitionEdge> newMapping = new HashMap<>(currentState.getMapping());
-            List<TransitionEdge> newUnmatchedSubj = new ArrayList<>(currentState.getUnmatchedSubjectEdges());
-            newUnmatchedSubj.remove(subjEdge);
-            List<TransitionEdge> unmatchedRef = new ArrayList<>(currentState.getUnmatchedReferenceEdges());
-
-            // Retrieve endpoints from the subject graph.
-            String subjSource = subjectGraph.getEdgeSource(subjEdge);
-            String subjTarget = subjectGraph.getEdgeTarget(subjEdge);
-
-            double newCost = currentState.getCumulativeCost() + INSERTION_COST;
-            // Include endpoints in the description.
-            EditOperation op = new EditOperation(
-                EditOperation.OperationType.INSERTION,
-                "Insert subject edge " + subjEdge + " (" + subjSource + " -> " + subjTarget + ")",
-                INSERTION_COST
-            );
-            EditState neighbor = new EditState(newMapping, newCost, unmatchedRef, newUnmatchedSubj, currentState, op);
-            neighbors.add(neighbor);
+        for (int s = currentState.nextUnmatchedSubject(0); s >= 0; s = currentState.nextUnmatchedSubject(s + 1)) {
+            if (isFirstOfSubjectClass(s, key, costs)) {
+                neighbors.add(insert(currentState, s, context));
+            }
         }
         
         return neighbors;
     }
 
-                                            
-    // Heuristic function to estimate the remaining cost from a given state.
-    private double heuristicCost(EditState state) {
-        int unmatchedCount = state.getUnmatchedReferenceEdges().size() + state.getUnmatchedSubjectEdges().size();
-        return unmatchedCount * 8.0;  // Assuming 8.0 is the minimal edge operation cost.
+    // Classic GED search tree: only the next reference edge (in index order) is
+    // branched on, either matched with one of its unmatched candidate subject edges
+    // or deleted. Once the reference edges run out, the remaining subject edges are
+    // inserted in one step, so every path has depth n + 1. The next reference edge
+    // is always the first unmatched one of its class; among identical subject edges
+    // only the first unmatched one is offered.
+    private List<EditState> generateFixedOrderNeighbors(EditState currentState, SearchContext context) {
+        List<EditState> neighbors = new ArrayList<>();
+
+        int r = currentState.nextUnmatchedReference(0);
+        if (r < 0) {
+            // Bulk insertion: chain the insertions and only hand out the final state.
+            EditState state = currentState;
+            for (int s = currentState.nextUnmatchedSubject(0); s >= 0; s = currentState.nextUnmatchedSubject(s + 1)) {
+                state = insert(state, s, context);
+            }
+            if (state != currentState) {
+                neighbors.add(state);
+            }
+            return neighbors;
+        }
+
+        StateKey key = currentState.getKey();
+        CostMatrix costs = context.getCostMatrix();
+        for (int s : costs.candidates(r)) {
+            if (!key.isSubjectConsumed(s) && isFirstOfSubjectClass(s, key, costs)) {
+                neighbors.add(match(currentState, r, s, context));
+            }
+        }
+        neighbors.add(delete(currentState, r, context));
+        return neighbors;
     }
-    
+
+    // Identical edges are adjacent and always consumed in index order, so a class
+    // is a count: its consumed members are a prefix, and the next one to use is the
+    // first unmatched edge, i.e. the one whose predecessor in the class is consumed.
+    private static boolean isFirstOfReferenceClass(int r, StateKey key, CostMatrix costs) {
+        return r == 0 || costs.referenceClass(r) != costs.referenceClass(r - 1) || key.isReferenceConsumed(r - 1);
+    }
+
+    private static boolean isFirstOfSubjectClass(int s, StateKey key, CostMatrix costs) {
+        return s == 0 || costs.subjectClass(s) != costs.subjectClass(s - 1) || key.isSubjectConsumed(s - 1);
+    }
+
+    // Child state in which reference edge r is matched with subject edge s by the
+    // cheaper of substitution and reassignment; both lead to the same key, so the
+    // dearer one could never be part of a cheaper path.
+    private EditState match(EditState currentState, int r, int s, SearchContext context) {
+        CostMatrix costs = context.getCostMatrix();
+        return costs.substitution(r, s) <= costs.reassignment(r, s)
+            ? substitute(currentState, r, s, context)
+            : reassign(currentState, r, s, context);
+    }
+
+    // Child state in which reference edge r is matched with subject edge s as a substitution.
+    private EditState substitute(EditState currentState, int r, int s, SearchContext context) {
+        double estimate = context.getEstimator().afterMatch(currentState.getHeuristicCost(), r, s);
+        return currentState.match(r, s, EditOperation.OperationType.SUBSTITUTION,
+            context.getCostMatrix().substitution(r, s), estimate);
+    }
+
+    // Child state in which reference edge r is matched with subject edge s as a reassignment.
+    private EditState reassign(EditState currentState, int r, int s, SearchContext context) {
+        double estimate = context.getEstimator().afterMatch(currentState.getHeuristicCost(), r, s);
+        return currentState.match(r, s, EditOperation.OperationType.REASSIGNMENT,
+            context.getCostMatrix().reassignment(r, s), estimate);
+    }
+
+    // Child state in which reference edge r is deleted.
+    private EditState delete(EditState currentState, int r, SearchContext context) {
+        double estimate = context.getEstimator().afterDeletion(currentState.getHeuristicCost(), r);
+        return currentState.delete(r, getDeletionCost(), estimate);
+    }
+
+    // Child state in which subject edge s is inserted.
+    private EditState insert(EditState currentState, int s, SearchContext context) {
+        double estimate = context.getEstimator().afterInsertion(currentState.getHeuristicCost(), s);
+        return currentState.insert(s, getInsertionCost(), estimate);
+    }
+
+    // Renders the operation that led to the given state.
+    private EditOperation describe(EditState state, SearchContext context) {
+        return describe(state.getOperationType(), state.getReferenceIndex(), state.getSubjectIndex(),
+            state.getOperationCost(), context);
+    }
+
+    // Renders an operation with edge labels and endpoints; the edge index of the side
+    // an operation does not touch is negative.
+    private EditOperation describe(EditOperation.OperationType type, int r, int s,
+                                   double cost, SearchContext context) {
+        GraphSnapshot reference = context.getReference();
+        GraphSnapshot subject = context.getSubject();
+        int refEdge = r < 0 ? -1 : context.referenceEdgeId(r);
+        int subjEdge = s < 0 ? -1 : context.subjectEdgeId(s);
+        switch (type) {
+            case SUBSTITUTION: {
+                return new EditOperation(
+                    EditOperation.OperationType.SUBSTITUTION,
+                    "Substitute edge " + reference.describeEdge(refEdge) + " with " + subject.describeEdge(subjEdge)
+                        + " " + endpoints(reference, refEdge),
+                    cost);
+            }
+            case REASSIGNMENT: {
+                // Reported as a SUBSTITUTION, as it always has been.
+                return new EditOperation(
+                    EditOperation.OperationType.SUBSTITUTION,
+                    "Reassign edge " + reference.describeEdge(refEdge)
+                        + " from  " + endpoints(reference, refEdge)
+                        + " to  " + endpoints(subject, subjEdge),
+                    cost);
+            }
+            case DELETION: {
+                return new EditOperation(
+                    EditOperation.OperationType.DELETION,
+                    "Delete reference edge " + reference.describeEdge(refEdge) + " " + endpoints(reference, refEdge),
+                    cost);
+            }
+            case INSERTION: {
+                return new EditOperation(
+                    EditOperation.OperationType.INSERTION,
+                    "Insert subject edge " + subject.describeEdge(subjEdge) + " " + endpoints(subject, subjEdge),
+                    cost);
+            }
+            default:
+                throw new IllegalStateException("Unknown operation type: " + type);
+        }
+    }
+
+    private static String endpoints(GraphSnapshot snapshot, int edge) {
+        return "(" + snapshot.vertexName(snapshot.source(edge)) + " -> " + snapshot.vertexName(snapshot.target(edge)) + ")";
+    }
+
     // Goal test: checks if the given state represents a complete mapping.
     private boolean isGoalState(EditState state) {
-        return state.getUnmatchedReferenceEdges().isEmpty() && state.getUnmatchedSubjectEdges().isEmpty();
+        return state.isComplete();
     }
     
 
@@ -250,16 +1034,13 @@ public class GraphEditDistanceCalculator {
         
         // Compare endpoints: if they don't match, return a high cost.
         if (!refSource.equals(subjSource) || !refTarget.equals(subjTarget)) {
-            return 250.0;
+            return costModel.substitutionCost(false, 0.0, 0.0);
         }
         
         // If endpoints match, compute cost based on label differences.
         double inputCost = computeStringCost(refEdge.getInput(), subjEdge.getInput());
         double outputCost = computeStringCost(refEdge.getOutput(), subjEdge.getOutput());
-
-        if (inputCost > 0 && outputCost>0) {return 1000;}
-        
-        return inputCost + outputCost;
+        return costModel.substitutionCost(true, inputCost, outputCost);
     }
     
     public double edgeReassignmentCost(
@@ -271,7 +1052,7 @@ public class GraphEditDistanceCalculator {
     // First, verify that the labels are the same.
         if (!refEdge.getInput().equals(subjEdge.getInput()) ||
             !refEdge.getOutput().equals(subjEdge.getOutput())) {
-            return 250;
+            return costModel.reassignmentCost(false, false);
         }
         
         // Retrieve endpoints for the reference edge.
@@ -282,17 +1063,37 @@ public class GraphEditDistanceCalculator {
         String subjSource = subjectGraph.getEdgeSource(subjEdge);
         String subjTarget = subjectGraph.getEdgeTarget(subjEdge);
         
-        // If endpoints are different, assign a reassignment cost.
-        if (!refSource.equals(subjSource) || !refTarget.equals(subjTarget)) {
-            return 2.0;
+        return costModel.reassignmentCost(true, refSource.equals(subjSource) && refTarget.equals(subjTarget));
+        }
+
+        // Substitution cost of snapshot edge refEdge by snapshot edge subjEdge.
+        public double edgeSubstitutionCost(GraphSnapshot reference, int refEdge, GraphSnapshot subject, int subjEdge) {
+            if (!sameEndpoints(reference, refEdge, subject, subjEdge)) {
+                return costModel.substitutionCost(false, 0.0, 0.0);
+            }
+            double inputCost = computeStringCost(reference.label(reference.input(refEdge)), subject.label(subject.input(subjEdge)));
+            double outputCost = computeStringCost(reference.label(reference.output(refEdge)), subject.label(subject.output(subjEdge)));
+            return costModel.substitutionCost(true, inputCost, outputCost);
         }
-        // If endpoints are the same (and labels are the same), no reassignment is needed.
-        return 0.0;
+
+        // Reassignment cost of snapshot edge refEdge to the endpoints of snapshot edge subjEdge.
+        public double edgeReassignmentCost(GraphSnapshot reference, int refEdge, GraphSnapshot subject, int subjEdge) {
+            boolean labelsMatch = reference.label(reference.input(refEdge)).equals(subject.label(subject.input(subjEdge)))
+                && reference.label(reference.output(refEdge)).equals(subject.label(subject.output(subjEdge)));
+            if (!labelsMatch) {
+                return costModel.reassignmentCost(false, false);
+            }
+            return costModel.reassignmentCost(true, sameEndpoints(reference, refEdge, subject, subjEdge));
+        }
+
+        // Vertex ids are per snapshot, so endpoints of different snapshots compare by name.
+        private static boolean sameEndpoints(GraphSnapshot reference, int refEdge, GraphSnapshot subject, int subjEdge) {
+            return reference.vertexName(reference.source(refEdge)).equals(subject.vertexName(subject.source(subjEdge)))
+                && reference.vertexName(reference.target(refEdge)).equals(subject.vertexName(subject.target(subjEdge)));
         }
 
         public double computeStringCost(String s1, String s2) {
-            LevenshteinDistance ld = new LevenshteinDistance();
-        return ld.apply(s1, s2);
+            return labelDistances.distance(s1, s2);
         }
 }
 
@@ -0,0 +1,134 @@
+package com.example;
+
+import org.jgrapht.Graph;
+
+/**
+ * 128-bit content hash of an automaton: its vertex names and, per edge, source,
+ * target, input, output and diff type.
+ *
+ * Every vertex and every edge is hashed on its own, and the element hashes are
+ * added up. The sum does not depend on iteration order, so equal graphs built in
+ * a different order (or a graph and its snapshot) get the same fingerprint, and
+ * repeated edges count with their multiplicity. Strings are hashed with 64-bit
+ * FNV-1a over their chars and not with String.hashCode(), and every element hash
+ * is finished with the SplitMix64 mixer, so fingerprints are stable across JVMs
+ * and runs. Two independently seeded lanes make accidental collisions negligible
+ * for use as a cache key.
+ */
+public final class GraphFingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL};
+
+    private final long high;
+    private final long low;
+
+    private GraphFingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public static GraphFingerprint of(Graph<String, TransitionEdge> graph) {
+        long[] sums = new long[SEEDS.length];
+        for (String vertex : graph.vertexSet()) {
+            addVertex(sums, vertex);
+        }
+        for (TransitionEdge edge : graph.edgeSet()) {
+            addEdge(sums, graph.getEdgeSource(edge), graph.getEdgeTarget(edge),
+                edge.getInput(), edge.getOutput(), edge.getType());
+        }
+        return finish(sums, graph.vertexSet().size(), graph.edgeSet().size());
+    }
+
+    // Same fingerprint as the graph the snapshot was taken of.
+    public static GraphFingerprint of(GraphSnapshot snapshot) {
+        long[] sums = new long[SEEDS.length];
+        for (int v = 0; v < snapshot.getVertexCount(); v++) {
+            addVertex(sums, snapshot.vertexName(v));
+        }
+        for (int e = 0; e < snapshot.getEdgeCount(); e++) {
+            addEdge(sums, snapshot.vertexName(snapshot.source(e)), snapshot.vertexName(snapshot.target(e)),
+                snapshot.label(snapshot.input(e)), snapshot.label(snapshot.output(e)), snapshot.type(e));
+        }
+        return finish(sums, snapshot.getVertexCount(), snapshot.getEdgeCount());
+    }
+
+    private static void addVertex(long[] sums, String name) {
+        for (int lane = 0; lane < SEEDS.length; lane++) {
+            sums[lane] += mix(hash(SEEDS[lane], name));
+        }
+    }
+
+    private static void addEdge(long[] sums, String source, String target, String input, String output, DiffType type) {
+        for (int lane = 0; lane < SEEDS.length; lane++) {
+            // Every field is folded in separately, so no two field lists share a char sequence.
+            long h = mix(SEEDS[lane] + type.ordinal() + 1);
+            h = mix(hash(h, source));
+            h = mix(hash(h, target));
+            h = mix(hash(h, input));
+            h = mix(hash(h, output));
+            sums[lane] += h;
+        }
+    }
+
+    private static GraphFingerprint finish(long[] sums, int vertexCount, int edgeCount) {
+        long counts = ((long) vertexCount << 32) ^ edgeCount;
+        return new GraphFingerprint(mix(sums[0] ^ counts), mix(sums[1] + counts));
+    }
+
+    // 64-bit FNV-1a over the chars of the string, continuing from h.
+    private static long hash(long h, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * FNV_PRIME;
+        }
+        return (h ^ s.length()) * FNV_PRIME;
+    }
+
+    // SplitMix64 finalizer: every input bit affects every output bit.
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Folds the given values into one stable 64-bit hash, as used for fingerprints.
+    static long hashOf(long... values) {
+        long h = FNV_OFFSET;
+        for (long value : values) {
+            h = mix(h ^ value);
+        }
+        return h;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GraphFingerprint)) {
+            return false;
+        }
+        GraphFingerprint other = (GraphFingerprint) o;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (high ^ (high >>> 32));
+    }
+
+    // 32 hex digits.
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+}
@@ -1,15 +1,40 @@
 package com.example;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 
 public class GraphMatchResult {
     private final double totalCost;
     private final List<EditOperation> operations;
+    private final boolean optimal;
+    private final double lowerBound;
+    private final Map<String, String> stateMapping;
+    private final SearchStatistics statistics;
 
+    // Result of an exact search: the cost is its own lower bound.
     public GraphMatchResult(double totalCost, List<EditOperation> operations) {
+        this(totalCost, operations, true, totalCost);
+    }
+
+    public GraphMatchResult(double totalCost, List<EditOperation> operations, boolean optimal, double lowerBound) {
+        this(totalCost, operations, optimal, lowerBound, Collections.emptyMap());
+    }
+
+    public GraphMatchResult(double totalCost, List<EditOperation> operations, boolean optimal, double lowerBound,
+                            Map<String, String> stateMapping) {
+        this(totalCost, operations, optimal, lowerBound, stateMapping, new SearchStatistics());
+    }
+
+    public GraphMatchResult(double totalCost, List<EditOperation> operations, boolean optimal, double lowerBound,
+                            Map<String, String> stateMapping, SearchStatistics statistics) {
         this.totalCost = totalCost;
         this.operations = operations;
+        this.optimal = optimal;
+        this.lowerBound = lowerBound;
+        this.stateMapping = stateMapping;
+        this.statistics = statistics;
     }
 
     public double getTotalCost() {
@@ -20,12 +45,39 @@ public class GraphMatchResult {
         return operations;
     }
 
+    // True if the search proved that no cheaper edit path exists.
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    // Best lower bound on the optimal cost that the search proved.
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    // Reference state -> subject state the edit path maps it onto; empty unless the
+    // engine searches over state mappings (Engine.VERTEX_MAPPING).
+    public Map<String, String> getStateMapping() {
+        return stateMapping;
+    }
+
+    // What the computation did and where its time went.
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
+
+    // How much cheaper the optimal edit path could at most be: totalCost - lowerBound.
+    public double getGap() {
+        return totalCost - lowerBound;
+    }
+
     @Override
     public String toString() {
         return "GraphMatchResult{" +
                "totalCost=" + totalCost +
+               ", optimal=" + optimal +
+               ", lowerBound=" + lowerBound +
                ", operations=" + operations +
                '}';
     }
 }
-
@@ -0,0 +1,219 @@
+package com.example;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jgrapht.Graph;
+
+/**
+ * Immutable, compact copy of an automaton for the comparison hot path.
+ *
+ * Vertices and edges get consecutive int ids, and every per-edge attribute is a
+ * parallel primitive array: source and target vertex, input and output label
+ * (coded by position in the label table) and the diff type as a byte. Incoming
+ * and outgoing edges are stored in CSR form (an offset array per vertex into one
+ * edge array per direction). Reading an endpoint or a label is therefore an
+ * array access instead of a lookup in JGraphT's edge map, and equal labels or
+ * vertices compare as ints.
+ *
+ * A snapshot built from a graph keeps the original edges for the public
+ * {@link TransitionEdge} based accessors; one built from arrays creates them on
+ * demand.
+ */
+public final class GraphSnapshot {
+
+    private static final DiffType[] TYPES = DiffType.values();
+
+    private final String[] vertexNames;
+    private final String[] labels;
+
+    // Per edge id.
+    private final int[] source;
+    private final int[] target;
+    private final int[] input;
+    private final int[] output;
+    private final byte[] types;
+
+    // CSR adjacency: the edges leaving vertex v are outEdges[outOffsets[v] .. outOffsets[v + 1]).
+    private final int[] outOffsets;
+    private final int[] outEdges;
+    private final int[] inOffsets;
+    private final int[] inEdges;
+
+    // Edges of the graph the snapshot was taken of, by id; null if built from arrays.
+    private final TransitionEdge[] edges;
+
+    GraphSnapshot(String[] vertexNames, String[] labels, int[] source, int[] target,
+                  int[] input, int[] output, byte[] types, TransitionEdge[] edges) {
+        this.vertexNames = vertexNames;
+        this.labels = labels;
+        this.source = source;
+        this.target = target;
+        this.input = input;
+        this.output = output;
+        this.types = types;
+        this.edges = edges;
+        this.outOffsets = new int[vertexNames.length + 1];
+        this.outEdges = new int[source.length];
+        this.inOffsets = new int[vertexNames.length + 1];
+        this.inEdges = new int[source.length];
+        fillAdjacency(source, outOffsets, outEdges);
+        fillAdjacency(target, inOffsets, inEdges);
+    }
+
+    public static GraphSnapshot of(Graph<String, TransitionEdge> graph) {
+        Map<String, Integer> vertexIds = new HashMap<>();
+        String[] vertexNames = new String[graph.vertexSet().size()];
+        for (String vertex : graph.vertexSet()) {
+            vertexNames[vertexIds.size()] = vertex;
+            vertexIds.put(vertex, vertexIds.size());
+        }
+
+        Map<String, Integer> labelIds = new HashMap<>();
+        int edgeCount = graph.edgeSet().size();
+        int[] source = new int[edgeCount];
+        int[] target = new int[edgeCount];
+        int[] input = new int[edgeCount];
+        int[] output = new int[edgeCount];
+        byte[] types = new byte[edgeCount];
+        TransitionEdge[] edges = new TransitionEdge[edgeCount];
+        int e = 0;
+        for (TransitionEdge edge : graph.edgeSet()) {
+            edges[e] = edge;
+            source[e] = vertexIds.get(graph.getEdgeSource(edge));
+            target[e] = vertexIds.get(graph.getEdgeTarget(edge));
+            input[e] = labelIds.computeIfAbsent(edge.getInput(), k -> labelIds.size());
+            output[e] = labelIds.computeIfAbsent(edge.getOutput(), k -> labelIds.size());
+            types[e] = (byte) edge.getType().ordinal();
+            e++;
+        }
+        String[] labels = new String[labelIds.size()];
+        labelIds.forEach((label, id) -> labels[id] = label);
+        return new GraphSnapshot(vertexNames, labels, source, target, input, output, types, edges);
+    }
+
+    // Counting sort of the edge ids by the given endpoint.
+    private static void fillAdjacency(int[] endpoint, int[] offsets, int[] adjacent) {
+        for (int v : endpoint) {
+            offsets[v + 1]++;
+        }
+        for (int v = 0; v + 1 < offsets.length; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = new int[offsets.length - 1];
+        System.arraycopy(offsets, 0, next, 0, next.length);
+        for (int e = 0; e < endpoint.length; e++) {
+            adjacent[next[endpoint[e]]++] = e;
+        }
+    }
+
+    public int getVertexCount() {
+        return vertexNames.length;
+    }
+
+    public int getEdgeCount() {
+        return source.length;
+    }
+
+    public int getLabelCount() {
+        return labels.length;
+    }
+
+    public String vertexName(int vertex) {
+        return vertexNames[vertex];
+    }
+
+    public String label(int labelCode) {
+        return labels[labelCode];
+    }
+
+    public int source(int edge) {
+        return source[edge];
+    }
+
+    public int target(int edge) {
+        return target[edge];
+    }
+
+    // Label code of the edge's input; see label(int).
+    public int input(int edge) {
+        return input[edge];
+    }
+
+    // Label code of the edge's output; see label(int).
+    public int output(int edge) {
+        return output[edge];
+    }
+
+    public DiffType type(int edge) {
+        return TYPES[types[edge]];
+    }
+
+    public int outDegree(int vertex) {
+        return outOffsets[vertex + 1] - outOffsets[vertex];
+    }
+
+    // The i-th edge leaving the vertex, 0 <= i < outDegree(vertex).
+    public int outgoingEdge(int vertex, int i) {
+        return outEdges[outOffsets[vertex] + i];
+    }
+
+    public int inDegree(int vertex) {
+        return inOffsets[vertex + 1] - inOffsets[vertex];
+    }
+
+    // The i-th edge entering the vertex, 0 <= i < inDegree(vertex).
+    public int incomingEdge(int vertex, int i) {
+        return inEdges[inOffsets[vertex] + i];
+    }
+
+    // True if a COMMON edge enters or leaves the vertex.
+    public boolean hasCommonEdge(int vertex) {
+        for (int i = outOffsets[vertex]; i < outOffsets[vertex + 1]; i++) {
+            if (types[outEdges[i]] == DiffType.COMMON.ordinal()) {
+                return true;
+            }
+        }
+        for (int i = inOffsets[vertex]; i < inOffsets[vertex + 1]; i++) {
+            if (types[inEdges[i]] == DiffType.COMMON.ordinal()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The edge as a TransitionEdge: the original one if the snapshot was taken of a graph.
+    public TransitionEdge edge(int edge) {
+        if (edges != null) {
+            return edges[edge];
+        }
+        return new TransitionEdge(labels[input[edge]], labels[output[edge]], type(edge));
+    }
+
+    // Renders the edge as TransitionEdge.toString() does.
+    public String describeEdge(int edge) {
+        return labels[input[edge]] + " / " + labels[output[edge]];
+    }
+
+    /**
+     * Approximate heap size of the snapshot's own arrays in bytes, assuming a 16
+     * byte array header and 8 byte references. Vertex names, labels and the
+     * original edges are shared with the graph and not counted.
+     */
+    public long getMemoryFootprintBytes() {
+        long bytes = 16L + 8L * vertexNames.length + 16L + 8L * labels.length;
+        bytes += 4 * (16L + 4L * source.length) + 16L + types.length;
+        bytes += 2 * (16L + 4L * outOffsets.length) + 2 * (16L + 4L * outEdges.length);
+        return edges == null ? bytes : bytes + 16L + 8L * edges.length;
+    }
+
+    @Override
+    public String toString() {
+        return "GraphSnapshot{" +
+               "vertices=" + vertexNames.length +
+               ", edges=" + source.length +
+               ", labels=" + labels.length +
+               ", bytes=" + getMemoryFootprintBytes() +
+               '}';
+    }
+}
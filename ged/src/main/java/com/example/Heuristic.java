@@ -0,0 +1,33 @@
+package com.example;
+
+/**
+ * Lower bound on the cost of completing a partial edit path.
+ *
+ * A heuristic is bound to one comparison through {@link #prepare}, which may
+ * precompute whatever it needs. Estimates are then derived incrementally: a
+ * child's estimate is computed from its parent's estimate and the single
+ * operation that leads to the child. Implementations must never overestimate
+ * the remaining cost, or the A* result is no longer optimal.
+ */
+public interface Heuristic {
+
+    Estimator prepare(SearchContext context, GraphEditDistanceCalculator calculator);
+
+    interface Estimator {
+
+        // Estimate for the initial state, where every edge is still unmatched.
+        double initialEstimate();
+
+        double afterMatch(double parentEstimate, int referenceIndex, int subjectIndex);
+
+        double afterDeletion(double parentEstimate, int referenceIndex);
+
+        double afterInsertion(double parentEstimate, int subjectIndex);
+
+        // True if every estimate is a whole number, which lets the search use an
+        // integer-keyed bucket open list.
+        default boolean isIntegral() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Solves the linear sum assignment problem on a square cost matrix with the
+ * Hungarian method in its shortest-augmenting-path form, O(n^3).
+ *
+ * Besides the assignment, the solver returns its dual potentials. They satisfy
+ * {@code rowPotential[i] + columnPotential[j] <= cost[i][j]} for every cell, so
+ * the sum of the potentials of any equally sized subset of rows and columns is
+ * a lower bound for the assignment problem restricted to that subset.
+ */
+public final class HungarianAlgorithm {
+
+    private HungarianAlgorithm() {
+    }
+
+    public static Assignment solve(double[][] cost) {
+        int n = cost.length;
+        // 1-based arrays; row/column 0 is the virtual start of every augmenting path.
+        double[] u = new double[n + 1];
+        double[] v = new double[n + 1];
+        int[] rowOfColumn = new int[n + 1];
+        int[] way = new int[n + 1];
+        double[] minReduced = new double[n + 1];
+        boolean[] used = new boolean[n + 1];
+
+        for (int i = 1; i <= n; i++) {
+            rowOfColumn[0] = i;
+            int column = 0;
+            Arrays.fill(minReduced, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[column] = true;
+                int row = rowOfColumn[column];
+                double delta = Double.POSITIVE_INFINITY;
+                int nextColumn = 0;
+                double[] costRow = cost[row - 1];
+                for (int j = 1; j <= n; j++) {
+                    if (!used[j]) {
+                        double reduced = costRow[j - 1] - u[row] - v[j];
+                        if (reduced < minReduced[j]) {
+                            minReduced[j] = reduced;
+                            way[j] = column;
+                        }
+                        if (minReduced[j] < delta) {
+                            delta = minReduced[j];
+                            nextColumn = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= n; j++) {
+                    if (used[j]) {
+                        u[rowOfColumn[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minReduced[j] -= delta;
+                    }
+                }
+                column = nextColumn;
+            } while (rowOfColumn[column] != 0);
+            // Flip the augmenting path.
+            do {
+                int previous = way[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        int[] columnOfRow = new int[n];
+        double total = 0.0;
+        for (int j = 1; j <= n; j++) {
+            columnOfRow[rowOfColumn[j] - 1] = j - 1;
+            total += cost[rowOfColumn[j] - 1][j - 1];
+        }
+        double[] rowPotentials = new double[n];
+        double[] columnPotentials = new double[n];
+        System.arraycopy(u, 1, rowPotentials, 0, n);
+        System.arraycopy(v, 1, columnPotentials, 0, n);
+        return new Assignment(columnOfRow, total, rowPotentials, columnPotentials);
+    }
+
+    // Optimal assignment together with the dual potentials that prove it.
+    public static final class Assignment {
+        private final int[] columnOfRow;
+        private final double cost;
+        private final double[] rowPotentials;
+        private final double[] columnPotentials;
+
+        Assignment(int[] columnOfRow, double cost, double[] rowPotentials, double[] columnPotentials) {
+            this.columnOfRow = columnOfRow;
+            this.cost = cost;
+            this.rowPotentials = rowPotentials;
+            this.columnPotentials = columnPotentials;
+        }
+
+        public int getColumnOfRow(int row) {
+            return columnOfRow[row];
+        }
+
+        public double getCost() {
+            return cost;
+        }
+
+        public double[] getRowPotentials() {
+            return rowPotentials;
+        }
+
+        public double[] getColumnPotentials() {
+            return columnPotentials;
+        }
+    }
+}
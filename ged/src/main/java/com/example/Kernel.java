@@ -0,0 +1,194 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Preprocessing of one comparison before any search: zero-cost matches that are
+ * provably part of some optimal edit path are fixed, and the remaining edges are
+ * split into independent components.
+ *
+ * Fixing a zero-cost pair (r, s) is safe if exchanging it into any solution never
+ * costs more. A solution that deletes r or inserts s, or both, can only get
+ * cheaper. One that matches r with s' and r' with s is no worse after the
+ * exchange if c(r', s') <= c(r, s') + c(r', s), with c(r', s') capped at the cost
+ * of deleting and inserting. Label distances do not obey the triangle
+ * inequality, so even identical edges can fail this check, and it is done
+ * explicitly for every candidate s' of r and r' of s.
+ *
+ * Two edges only interact through a non-dominated pairing (a candidate of the
+ * cost matrix), as some optimal edit path uses no other pairs. Edges are
+ * therefore grouped by union-find over the candidate pairs; each component is an
+ * independent sub-problem, and edges without any candidate are simply deleted
+ * or inserted.
+ */
+final class Kernel {
+
+    private final List<int[]> fixedPairs;
+    private final List<Component> components;
+    private final int[] isolatedReferences;
+    private final int[] isolatedSubjects;
+
+    private Kernel(List<int[]> fixedPairs, List<Component> components,
+                   int[] isolatedReferences, int[] isolatedSubjects) {
+        this.fixedPairs = fixedPairs;
+        this.components = components;
+        this.isolatedReferences = isolatedReferences;
+        this.isolatedSubjects = isolatedSubjects;
+    }
+
+    static Kernel reduce(CostMatrix costs, int referenceCount, int subjectCount, CostModel model) {
+        double deleteAndInsert = model.getDeletionCost() + model.getInsertionCost();
+        int[][] referencesOf = reverseCandidates(costs, referenceCount, subjectCount);
+        boolean[] referenceUsed = new boolean[referenceCount];
+        boolean[] subjectUsed = new boolean[subjectCount];
+
+        List<int[]> fixedPairs = new ArrayList<>();
+        for (int r = 0; r < referenceCount; r++) {
+            for (int s : costs.candidates(r)) {
+                if (!subjectUsed[s] && costs.pairCost(r, s) == 0.0
+                    && isSafeToFix(r, s, costs, referencesOf, referenceUsed, subjectUsed, deleteAndInsert)) {
+                    fixedPairs.add(new int[] {r, s});
+                    referenceUsed[r] = true;
+                    subjectUsed[s] = true;
+                    break;
+                }
+            }
+        }
+
+        // Union-find over reference edges (0..n-1) and subject edges (n..n+m-1).
+        int[] parent = new int[referenceCount + subjectCount];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (int r = 0; r < referenceCount; r++) {
+            if (referenceUsed[r]) {
+                continue;
+            }
+            for (int s : costs.candidates(r)) {
+                if (!subjectUsed[s]) {
+                    parent[find(parent, r)] = find(parent, referenceCount + s);
+                }
+            }
+        }
+
+        Map<Integer, Component> byRoot = new LinkedHashMap<>();
+        for (int r = 0; r < referenceCount; r++) {
+            if (!referenceUsed[r]) {
+                byRoot.computeIfAbsent(find(parent, r), k -> new Component()).references.add(r);
+            }
+        }
+        for (int s = 0; s < subjectCount; s++) {
+            if (!subjectUsed[s]) {
+                byRoot.computeIfAbsent(find(parent, referenceCount + s), k -> new Component()).subjects.add(s);
+            }
+        }
+
+        List<Component> components = new ArrayList<>();
+        List<Integer> isolatedReferences = new ArrayList<>();
+        List<Integer> isolatedSubjects = new ArrayList<>();
+        for (Component component : byRoot.values()) {
+            if (component.subjects.isEmpty()) {
+                isolatedReferences.addAll(component.references);
+            } else if (component.references.isEmpty()) {
+                isolatedSubjects.addAll(component.subjects);
+            } else {
+                components.add(component);
+            }
+        }
+        return new Kernel(fixedPairs, components, toArray(isolatedReferences), toArray(isolatedSubjects));
+    }
+
+    private static boolean isSafeToFix(int r, int s, CostMatrix costs, int[][] referencesOf,
+                                       boolean[] referenceUsed, boolean[] subjectUsed, double deleteAndInsert) {
+        for (int otherSubject : costs.candidates(r)) {
+            if (otherSubject == s || subjectUsed[otherSubject]) {
+                continue;
+            }
+            for (int otherReference : referencesOf[s]) {
+                if (otherReference == r || referenceUsed[otherReference]) {
+                    continue;
+                }
+                double exchanged = Math.min(costs.pairCost(otherReference, otherSubject), deleteAndInsert);
+                if (exchanged > costs.pairCost(r, otherSubject) + costs.pairCost(otherReference, s)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Reference edges that have the subject edge among their candidates, per subject edge.
+    private static int[][] reverseCandidates(CostMatrix costs, int referenceCount, int subjectCount) {
+        int[] degree = new int[subjectCount];
+        for (int r = 0; r < referenceCount; r++) {
+            for (int s : costs.candidates(r)) {
+                degree[s]++;
+            }
+        }
+        int[][] referencesOf = new int[subjectCount][];
+        for (int s = 0; s < subjectCount; s++) {
+            referencesOf[s] = new int[degree[s]];
+        }
+        Arrays.fill(degree, 0);
+        for (int r = 0; r < referenceCount; r++) {
+            for (int s : costs.candidates(r)) {
+                referencesOf[s][degree[s]++] = r;
+            }
+        }
+        return referencesOf;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    // Fixed zero-cost matches as {reference index, subject index}.
+    List<int[]> getFixedPairs() {
+        return fixedPairs;
+    }
+
+    // Independent sub-problems with at least one candidate pair each.
+    List<Component> getComponents() {
+        return components;
+    }
+
+    // Reference edges without any candidate left: always deleted.
+    int[] getIsolatedReferences() {
+        return isolatedReferences;
+    }
+
+    // Subject edges without any candidate left: always inserted.
+    int[] getIsolatedSubjects() {
+        return isolatedSubjects;
+    }
+
+    // Reference and subject edge indices of one independent sub-problem, in ascending order.
+    static final class Component {
+        private final List<Integer> references = new ArrayList<>();
+        private final List<Integer> subjects = new ArrayList<>();
+
+        int[] getReferences() {
+            return toArray(references);
+        }
+
+        int[] getSubjects() {
+            return toArray(subjects);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Levenshtein distances between transition labels, shared by all comparisons.
+ *
+ * Label vocabularies are small and the same pairs come up in comparison after
+ * comparison, so pairwise distances are kept in a bounded, least-recently-used
+ * cache that outlives a single calculator invocation. The cache is keyed by the
+ * label strings themselves: a label is retained only while a cached pair refers
+ * to it, so a long-running process holds at most capacity pairs however many
+ * labels it has seen. Comparisons intern labels to ids in their own scope (see
+ * {@link CostMatrix}). All methods are thread-safe.
+ *
+ * Callers that only need to know whether a distance exceeds some limit (a pair
+ * that is dominated anyway) pass that limit: the computation then stops as soon
+ * as the limit is provably exceeded, and only that fact is cached until an exact
+ * value is asked for.
+ */
+public final class LabelDistanceService {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final LabelDistanceService SHARED = new LabelDistanceService(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    // A value d >= 0 is the exact distance; d < 0 means the distance is at least -d.
+    // Guarded by itself.
+    private final LinkedHashMap<LabelPair, Integer> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public LabelDistanceService(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<LabelPair, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LabelPair, Integer> eldest) {
+                return size() > LabelDistanceService.this.capacity;
+            }
+        };
+    }
+
+    // The instance calculators use unless given another one.
+    public static LabelDistanceService shared() {
+        return SHARED;
+    }
+
+    public int distance(String a, String b) {
+        return distance(a, b, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Distance of the two labels if it is at most limit; otherwise some value
+     * greater than limit and not greater than the distance.
+     */
+    public int distance(String a, String b, int limit) {
+        if (a.equals(b)) {
+            return 0;
+        }
+        LabelPair key = new LabelPair(a, b);
+        Integer cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null && (cached >= 0 || -cached > limit)) {
+            hits.increment();
+            return Math.abs(cached);
+        }
+        misses.increment();
+
+        int distance = boundedLevenshtein(a, b, limit);
+        int value = distance >= 0 ? distance : -(limit + 1);
+        synchronized (cache) {
+            Integer previous = cache.get(key);
+            // Never replace an exact value or a larger lower bound.
+            if (previous == null || (previous < 0 && (value >= 0 || value < previous))) {
+                cache.put(key, value);
+            }
+        }
+        return distance >= 0 ? distance : limit + 1;
+    }
+
+    /**
+     * Levenshtein distance of s and t, or -1 if it exceeds limit. Only the band of
+     * cells within limit of the diagonal is computed, and the computation stops as
+     * soon as a whole row exceeds the limit: O(limit * length) time.
+     */
+    static int boundedLevenshtein(CharSequence s, CharSequence t, int limit) {
+        int n = s.length();
+        int m = t.length();
+        limit = Math.min(limit, Math.max(n, m));
+        if (Math.abs(n - m) > limit) {
+            return -1;
+        }
+        if (n == 0 || m == 0) {
+            return Math.max(n, m);
+        }
+        // Stands in for every cell outside the band.
+        int outside = limit + 1;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= limit ? j : outside;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - limit);
+            int to = Math.min(m, i + limit);
+            current[0] = i <= limit ? i : outside;
+            if (from > 1) {
+                current[from - 1] = outside;
+            }
+            int rowMinimum = from == 1 ? current[0] : outside;
+            char c = s.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cell = previous[j - 1] + (c == t.charAt(j - 1) ? 0 : 1);
+                cell = Math.min(cell, Math.min(current[j - 1], previous[j]) + 1);
+                current[j] = Math.min(cell, outside);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (to < m) {
+                current[to + 1] = outside;
+            }
+            if (rowMinimum > limit) {
+                return -1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m] <= limit ? previous[m] : -1;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    // Share of distance requests answered from the cache; 0 before the first request.
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "LabelDistanceService{" +
+               "cached=" + size() + "/" + capacity +
+               ", hits=" + getHitCount() +
+               ", misses=" + getMissCount() +
+               '}';
+    }
+
+    // Unordered pair of distinct labels.
+    private static final class LabelPair {
+        private final String first;
+        private final String second;
+
+        LabelPair(String a, String b) {
+            boolean ordered = a.compareTo(b) <= 0;
+            this.first = ordered ? a : b;
+            this.second = ordered ? b : a;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof LabelPair)) {
+                return false;
+            }
+            LabelPair other = (LabelPair) o;
+            return first.equals(other.first) && second.equals(other.second);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * first.hashCode() + second.hashCode();
+        }
+    }
+}
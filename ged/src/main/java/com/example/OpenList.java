@@ -0,0 +1,20 @@
+package com.example;
+
+/**
+ * Open list of the A* search: hands out the queued state with the lowest f-value.
+ */
+public interface OpenList {
+
+    void add(EditState state);
+
+    // Removes and returns the state with the lowest f-value, or null if empty.
+    EditState poll();
+
+    boolean isEmpty();
+
+    int size();
+
+    // Lowest g + h of the queued states, used as a proven lower bound when a search
+    // stops early; infinite if empty.
+    double lowestEstimatedTotalCost();
+}
@@ -0,0 +1,18 @@
+package com.example;
+
+/**
+ * Which {@link OpenList} implementation the A* search uses.
+ */
+public enum OpenListType {
+    /**
+     * BUCKET when all costs and heuristic estimates of the comparison are whole
+     * numbers, BINARY_HEAP otherwise.
+     */
+    AUTO,
+
+    // Binary heap ordered by f, then by remaining estimate. Works for any cost model.
+    BINARY_HEAP,
+
+    // Buckets indexed by integer f, LIFO within a bucket. Integral cost models only.
+    BUCKET,
+}
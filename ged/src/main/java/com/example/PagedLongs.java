@@ -0,0 +1,102 @@
+package com.example;
+
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * A long array addressed by long indices, made of equally sized pages that are
+ * either heap arrays or mapped spill files. A single mapping is limited to 2 GiB,
+ * so larger arrays need several pages either way. Pages start out zero-filled.
+ *
+ * The array starts as one page just large enough for its initial length. While
+ * it has a single page below the maximum size, growing doubles that page (the old
+ * one is copied and released); from then on whole pages are added. A small array
+ * thus never occupies a full page, and a large one is not copied more than once.
+ */
+final class PagedLongs {
+
+    private final int maxPageShift;
+    private final IntFunction<LongBuffer> allocator;
+    private final Consumer<LongBuffer> releaser;
+    private final boolean onHeap;
+    private final List<LongBuffer> pages = new ArrayList<>();
+    private int pageShift;
+    private long pageMask;
+
+    private PagedLongs(int pageShift, int maxPageShift, IntFunction<LongBuffer> allocator,
+                       Consumer<LongBuffer> releaser, boolean onHeap) {
+        this.maxPageShift = maxPageShift;
+        this.allocator = allocator;
+        this.releaser = releaser;
+        this.onHeap = onHeap;
+        setPageShift(pageShift);
+    }
+
+    // Pages of at most 2^maxPageShift longs, smaller if length needs less.
+    static PagedLongs onHeap(long length, int maxPageShift) {
+        PagedLongs longs = new PagedLongs(pageShift(length, maxPageShift), maxPageShift,
+            size -> LongBuffer.wrap(new long[size]), page -> { }, true);
+        longs.ensureCapacity(length);
+        return longs;
+    }
+
+    static PagedLongs mapped(long length, int maxPageShift, SpillDirectory spill) {
+        PagedLongs longs = new PagedLongs(pageShift(length, maxPageShift), maxPageShift, spill::map, spill::release,
+            false);
+        longs.ensureCapacity(length);
+        return longs;
+    }
+
+    private static int pageShift(long length, int maxPageShift) {
+        int shift = 64 - Long.numberOfLeadingZeros(Math.max(1, length - 1));
+        return Math.min(shift, maxPageShift);
+    }
+
+    private void setPageShift(int pageShift) {
+        this.pageShift = pageShift;
+        this.pageMask = (1L << pageShift) - 1;
+    }
+
+    void ensureCapacity(long length) {
+        while (capacity() < length) {
+            if (pages.size() == 1 && pageShift < maxPageShift) {
+                LongBuffer old = pages.get(0);
+                LongBuffer grown = allocator.apply(2 << pageShift);
+                grown.duplicate().put(old.duplicate());
+                pages.set(0, grown);
+                releaser.accept(old);
+                setPageShift(pageShift + 1);
+            } else {
+                pages.add(allocator.apply(1 << pageShift));
+            }
+        }
+    }
+
+    long capacity() {
+        return (long) pages.size() << pageShift;
+    }
+
+    long get(long index) {
+        return pages.get((int) (index >>> pageShift)).get((int) (index & pageMask));
+    }
+
+    void set(long index, long value) {
+        pages.get((int) (index >>> pageShift)).put((int) (index & pageMask), value);
+    }
+
+    // Bytes this array holds on the Java heap: all of it for heap pages, nothing otherwise.
+    long heapBytes() {
+        return onHeap ? 8L * capacity() : 0L;
+    }
+
+    // Gives the pages back (unmapping mapped ones); the array must not be used afterwards.
+    void release() {
+        for (LongBuffer page : pages) {
+            releaser.accept(page);
+        }
+        pages.clear();
+    }
+}
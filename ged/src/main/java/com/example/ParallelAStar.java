@@ -0,0 +1,224 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Hash-distributed A* (HDA*) over the states of one comparison.
+ *
+ * Every state key is owned by exactly one worker thread, chosen by its hash. A
+ * worker keeps the open list and the transposition table of its own keys, so
+ * neither needs locking; children owned by another worker are handed over
+ * through that worker's lock-free inbox.
+ *
+ * A goal found by one worker only becomes the incumbent: another worker may
+ * still hold a cheaper path. States are counted from the moment they are
+ * queued (locally or in an inbox) until they are expanded or dropped, and the
+ * children of a state are counted before the state itself is released, so the
+ * count reaches zero exactly when no work is left anywhere. At that point every
+ * state with an f-value below the incumbent has been expanded and, with an
+ * admissible heuristic, the incumbent is optimal.
+ *
+ * The engine has no node or time budget of its own, but every worker polls the
+ * request's {@link SearchControl} and all of them stop once it does.
+ */
+final class ParallelAStar {
+
+    // The control is only polled every few rounds of a worker.
+    private static final int CONTROL_INTERVAL = 256;
+
+    private final Function<EditState, List<EditState>> expander;
+    private final Worker[] workers;
+
+    // States queued or in transit and not yet expanded or dropped.
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicReference<EditState> incumbent = new AtomicReference<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final SearchControl control;
+    private volatile boolean stopped;
+
+    ParallelAStar(Function<EditState, List<EditState>> expander, Supplier<OpenList> openLists, int threadCount,
+                  SearchControl control) {
+        this.expander = expander;
+        this.control = control;
+        this.workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            workers[i] = new Worker(openLists.get());
+        }
+    }
+
+    // Runs the search, starting from the given incumbent if not null, and adds the
+    // counters of all workers to statistics. Returns null if stopped by the control
+    // before any complete state was known.
+    SearchOutcome run(EditState initialState, EditState knownIncumbent, SearchStatistics statistics) {
+        if (knownIncumbent != null) {
+            incumbent.set(knownIncumbent);
+        }
+        pending.incrementAndGet();
+        owner(initialState).inbox.add(initialState);
+
+        Thread[] threads = new Thread[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            threads[i] = new Thread(workers[i], "ged-hda-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the search workers", e);
+            }
+        }
+        for (Worker worker : workers) {
+            statistics.merge(worker.statistics);
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("Search worker failed", failure.get());
+        }
+        EditState best = incumbent.get();
+        if (stopped) {
+            // Only the root estimate is still a proven bound.
+            return best == null ? null : new SearchOutcome(best, initialState.getEstimatedTotalCost());
+        }
+        if (best == null) {
+            throw new RuntimeException("No valid edit path found.");
+        }
+        return new SearchOutcome(best, best.getCumulativeCost());
+    }
+
+    private Worker owner(EditState state) {
+        // Spread the key hash before reducing it, the low bits of an array hash are weak.
+        int h = state.getKey().hashCode() * 0x9E3779B9;
+        return workers[Math.floorMod(h ^ (h >>> 16), workers.length)];
+    }
+
+    // Cost of the best complete state so far, or infinity.
+    private double bound() {
+        EditState best = incumbent.get();
+        return best == null ? Double.POSITIVE_INFINITY : best.getCumulativeCost();
+    }
+
+    private void offerGoal(EditState goal) {
+        while (true) {
+            EditState best = incumbent.get();
+            if (best != null && best.getCumulativeCost() <= goal.getCumulativeCost()) {
+                return;
+            }
+            if (incumbent.compareAndSet(best, goal)) {
+                return;
+            }
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final Queue<EditState> inbox = new ConcurrentLinkedQueue<>();
+        private final OpenList openList;
+        private final TranspositionTable transpositions = new TranspositionTable();
+        // Children owned by other workers, collected during one expansion.
+        private final List<EditState> outbox = new ArrayList<>();
+        // Owned by the worker thread until it terminates.
+        private final SearchStatistics statistics = new SearchStatistics();
+
+        Worker(OpenList openList) {
+            this.openList = openList;
+        }
+
+        @Override
+        public void run() {
+            try {
+                search();
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        }
+
+        private void search() {
+            for (long round = 0; failure.get() == null && !stopped; round++) {
+                if (round % CONTROL_INTERVAL == 0 && control.isStopped()) {
+                    stopped = true;
+                    return;
+                }
+                drainInbox();
+                if (openList.isEmpty()) {
+                    if (pending.get() == 0) {
+                        return;
+                    }
+                    Thread.yield();
+                    continue;
+                }
+
+                EditState state = openList.poll();
+                if (transpositions.isSuperseded(state)) {
+                    statistics.countDuplicate();
+                    pending.decrementAndGet();
+                    continue;
+                }
+                if (state.getEstimatedTotalCost() >= bound()) {
+                    statistics.countPruned(1);
+                    pending.decrementAndGet();
+                    continue;
+                }
+                if (state.isComplete()) {
+                    offerGoal(state);
+                    pending.decrementAndGet();
+                    continue;
+                }
+
+                statistics.countExpansion();
+                int queued = 0;
+                double bound = bound();
+                outbox.clear();
+                List<EditState> children = expander.apply(state);
+                statistics.countGenerated(children.size());
+                for (EditState child : children) {
+                    if (child.getEstimatedTotalCost() >= bound) {
+                        statistics.countPruned(1);
+                        continue;
+                    }
+                    if (owner(child) == this) {
+                        if (!transpositions.offer(child)) {
+                            statistics.countDuplicate();
+                            continue;
+                        }
+                        openList.add(child);
+                    } else {
+                        outbox.add(child);
+                    }
+                    queued++;
+                }
+                // Children are counted before the parent is released and before
+                // any other worker can see them.
+                pending.addAndGet(queued - 1);
+                for (EditState child : outbox) {
+                    owner(child).inbox.add(child);
+                }
+                statistics.observeOpenListSize(openList.size());
+            }
+        }
+
+        private void drainInbox() {
+            int dropped = 0;
+            EditState state;
+            while ((state = inbox.poll()) != null) {
+                if (transpositions.offer(state)) {
+                    openList.add(state);
+                } else {
+                    statistics.countDuplicate();
+                    dropped++;
+                }
+            }
+            if (dropped > 0) {
+                pending.addAndGet(-dropped);
+            }
+        }
+    }
+}
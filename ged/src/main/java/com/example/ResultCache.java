@@ -0,0 +1,332 @@
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jgrapht.Graph;
+
+/**
+ * Completed comparisons, keyed by the {@link GraphFingerprint}s of both graphs
+ * and the id of the cost model, so that a pair compared before is answered
+ * without a search, also by other calculators and, with a disk tier, other runs.
+ *
+ * Results are kept in a least-recently-used map bounded by entry count. With a
+ * directory, every result is also written there as one small file and read back
+ * on a memory miss; the directory may be shared by several processes, as files
+ * are replaced atomically. Results read from disk carry empty statistics.
+ *
+ * {@link #computeIfAbsent} only stores optimal results: a budgeted or heuristic
+ * search can end anywhere above the optimum, while the exact engines that compare
+ * state names literally all agree on the distance. The vertex-mapping engine
+ * minimizes a different distance, so its results are kept under keys of their
+ * own (a "-vm" suffix on the cost model id) and never answer a literal query or
+ * the other way round. All methods are thread-safe; two threads missing the
+ * same key at once both compute it.
+ */
+public final class ResultCache {
+
+    // "GEDR"
+    private static final int MAGIC = 0x47454452;
+    // Version 1 files may hold vertex mappings that send two states onto one; they are ignored.
+    private static final int FORMAT_VERSION = 2;
+    private static final EditOperation.OperationType[] TYPES = EditOperation.OperationType.values();
+
+    private final int capacity;
+    // Null for a memory-only cache.
+    private final Path directory;
+    // Guarded by itself.
+    private final LinkedHashMap<Key, GraphMatchResult> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResultCache(int capacity) {
+        this(capacity, null);
+    }
+
+    public ResultCache(int capacity, Path directory) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.directory = directory;
+        this.entries = new LinkedHashMap<Key, GraphMatchResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, GraphMatchResult> eldest) {
+                return size() > ResultCache.this.capacity;
+            }
+        };
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create cache directory " + directory, e);
+            }
+        }
+    }
+
+    public static Key key(GraphEditDistanceCalculator calculator, Graph<String, TransitionEdge> referenceGraph,
+                          Graph<String, TransitionEdge> subjectGraph) {
+        return key(calculator, GraphFingerprint.of(referenceGraph), GraphFingerprint.of(subjectGraph));
+    }
+
+    // For callers that compare the same graph many times and fingerprint it once.
+    public static Key key(GraphEditDistanceCalculator calculator, GraphFingerprint reference, GraphFingerprint subject) {
+        String model = calculator.getCostModel().getId();
+        if (calculator.getEngine() == Engine.VERTEX_MAPPING) {
+            model += "-vm";
+        }
+        return new Key(reference, subject, model);
+    }
+
+    /**
+     * The cached result of the comparison, or one computed with
+     * {@link GraphEditDistanceCalculator#computeDetailedEditDistance} and stored if
+     * it is optimal.
+     */
+    public GraphMatchResult computeIfAbsent(GraphEditDistanceCalculator calculator,
+                                            Graph<String, TransitionEdge> referenceGraph,
+                                            Graph<String, TransitionEdge> subjectGraph) {
+        Key key = key(calculator, referenceGraph, subjectGraph);
+        GraphMatchResult cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        GraphMatchResult result = calculator.computeDetailedEditDistance(referenceGraph, subjectGraph);
+        return result.isOptimal() ? put(key, result) : result;
+    }
+
+    // The stored result, from memory or else from disk; null if there is none.
+    public GraphMatchResult get(Key key) {
+        GraphMatchResult result;
+        synchronized (entries) {
+            result = entries.get(key);
+        }
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+        result = directory == null ? null : read(key);
+        if (result == null) {
+            misses.increment();
+            return null;
+        }
+        diskHits.increment();
+        synchronized (entries) {
+            entries.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Stores the result (also on disk, if there is a directory) and returns the
+     * stored copy, whose operation list cannot be modified.
+     */
+    public GraphMatchResult put(Key key, GraphMatchResult result) {
+        GraphMatchResult stored = new GraphMatchResult(result.getTotalCost(),
+            Collections.unmodifiableList(new ArrayList<>(result.getOperations())), result.isOptimal(),
+            result.getLowerBound(), result.getStateMapping(), result.getStatistics());
+        if (directory != null) {
+            write(key, stored);
+        }
+        synchronized (entries) {
+            entries.put(key, stored);
+        }
+        return stored;
+    }
+
+    private GraphMatchResult read(Key key) {
+        Path file = directory.resolve(key.getFileName());
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                // Written by another version; it is overwritten by the next put.
+                return null;
+            }
+            double totalCost = in.readDouble();
+            boolean optimal = in.readBoolean();
+            double lowerBound = in.readDouble();
+            List<EditOperation> operations = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                int ordinal = in.readByte();
+                if (ordinal < 0 || ordinal >= TYPES.length) {
+                    return null;
+                }
+                EditOperation.OperationType type = TYPES[ordinal];
+                String description = in.readUTF();
+                operations.add(new EditOperation(type, description, in.readDouble()));
+            }
+            Map<String, String> stateMapping = new LinkedHashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                stateMapping.put(in.readUTF(), in.readUTF());
+            }
+            return new GraphMatchResult(totalCost, Collections.unmodifiableList(operations), optimal, lowerBound,
+                stateMapping);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (EOFException | UTFDataFormatException e) {
+            // Damaged (say, truncated by a full disk): a miss, and overwritten by the next put.
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read cached result " + file, e);
+        }
+    }
+
+    private void write(Key key, GraphMatchResult result) {
+        Path file = directory.resolve(key.getFileName());
+        Path temporary = null;
+        try {
+            // Written next to the target and moved into place, so readers never see half a file.
+            temporary = Files.createTempFile(directory, key.getFileName(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeDouble(result.getTotalCost());
+                out.writeBoolean(result.isOptimal());
+                out.writeDouble(result.getLowerBound());
+                out.writeInt(result.getOperations().size());
+                for (EditOperation operation : result.getOperations()) {
+                    out.writeByte(operation.getOperationType().ordinal());
+                    out.writeUTF(operation.getDescription());
+                    out.writeDouble(operation.getCost());
+                }
+                out.writeInt(result.getStateMapping().size());
+                for (Map.Entry<String, String> pair : result.getStateMapping().entrySet()) {
+                    out.writeUTF(pair.getKey());
+                    out.writeUTF(pair.getValue());
+                }
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            deleteQuietly(temporary);
+            throw new UncheckedIOException("Cannot write cached result " + file, e);
+        }
+    }
+
+    // Removes what a failed write left behind; null for nothing.
+    private static void deleteQuietly(Path temporary) {
+        if (temporary == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (IOException e) {
+            temporary.toFile().deleteOnExit();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Null for a memory-only cache.
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Results held in memory.
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    // Memory misses answered from disk.
+    public long getDiskHitCount() {
+        return diskHits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ResultCache{" +
+               "cached=" + size() + "/" + capacity +
+               ", directory=" + directory +
+               ", hits=" + getHitCount() +
+               ", diskHits=" + getDiskHitCount() +
+               ", misses=" + getMissCount() +
+               '}';
+    }
+
+    /**
+     * Identity of one comparison: both fingerprints and the cost model id.
+     */
+    public static final class Key {
+        private final GraphFingerprint reference;
+        private final GraphFingerprint subject;
+        private final String model;
+
+        public Key(GraphFingerprint reference, GraphFingerprint subject, String model) {
+            this.reference = reference;
+            this.subject = subject;
+            this.model = model;
+        }
+
+        public GraphFingerprint getReference() {
+            return reference;
+        }
+
+        public GraphFingerprint getSubject() {
+            return subject;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        // Name of the file the result is stored in, safe on any file system.
+        String getFileName() {
+            return reference + "-" + subject + "-" + model.replaceAll("[^0-9A-Za-z-]", "_");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return reference.equals(other.reference) && subject.equals(other.subject) && model.equals(other.model);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * reference.hashCode() + subject.hashCode()) + model.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return getFileName();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example;
+
+/**
+ * Wall-clock and expanded-node limits of one search. A limit of 0 means unlimited.
+ * The request's {@link SearchControl} can end the search earlier, by its deadline
+ * or by cancellation. Expansions are also counted in the search's statistics,
+ * which are sampled to the listener, if any, every progressInterval expansions.
+ */
+class SearchBudget {
+
+    // The clock is only read every few expansions.
+    private static final int CLOCK_INTERVAL = 256;
+
+    private final long deadlineNanos;
+    private final long nodeLimit;
+    private final SearchStatistics statistics;
+    private final SearchListener listener;
+    private final long progressInterval;
+    private final SearchControl control;
+    private long expanded;
+
+    SearchBudget(long timeBudgetMillis, long nodeBudget, SearchStatistics statistics,
+                 SearchListener listener, long progressInterval, SearchControl control) {
+        long deadline = timeBudgetMillis > 0 ? System.nanoTime() + timeBudgetMillis * 1_000_000L : 0L;
+        if (control.getDeadlineNanos() != 0 && (deadline == 0 || control.getDeadlineNanos() - deadline < 0)) {
+            deadline = control.getDeadlineNanos();
+        }
+        this.deadlineNanos = deadline;
+        this.control = control;
+        this.nodeLimit = nodeBudget;
+        this.statistics = statistics;
+        this.listener = listener;
+        this.progressInterval = progressInterval;
+    }
+
+    void countExpansion() {
+        expanded++;
+        statistics.countExpansion();
+        if (listener != null && expanded % progressInterval == 0) {
+            listener.onProgress(statistics.copy());
+        }
+    }
+
+    boolean isExhausted() {
+        if (nodeLimit > 0 && expanded >= nodeLimit) {
+            return true;
+        }
+        if (control.isCancelled()) {
+            return true;
+        }
+        return deadlineNanos != 0 && expanded % CLOCK_INTERVAL == 0 && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    long getExpanded() {
+        return expanded;
+    }
+
+    SearchStatistics getStatistics() {
+        return statistics;
+    }
+}
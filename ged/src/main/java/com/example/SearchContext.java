@@ -0,0 +1,146 @@
+package com.example;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Per-comparison data shared by every state of one search.
+ * The non-COMMON edges of both graphs are given a fixed index, which is what
+ * canonical state keys and the search itself refer to. Edge index i stands for
+ * edge {@code referenceEdgeId(i)} of the reference snapshot, and likewise for the
+ * subject side.
+ */
+public class SearchContext {
+
+    private final GraphSnapshot reference;
+    private final GraphSnapshot subject;
+
+    // Snapshot edge ids of the edges taking part in the search, position = edge index.
+    private final int[] referenceEdges;
+    private final int[] subjectEdges;
+
+    // Edge-pair costs, precomputed once before the search starts.
+    private CostMatrix costMatrix;
+
+    // Heuristic bound to this comparison, set once before the search starts.
+    private Heuristic.Estimator estimator;
+
+    // Complete state known before the search starts (a warm start), or null.
+    private EditState incumbent;
+
+    // Deadline and cancellation of the request; shared with restricted contexts.
+    private SearchControl control = SearchControl.NONE;
+
+    // Counters of the search over this context only; a restricted context has its own.
+    private final SearchStatistics statistics = new SearchStatistics();
+
+    public SearchContext(GraphSnapshot reference, GraphSnapshot subject, int[] referenceEdges, int[] subjectEdges) {
+        this.reference = reference;
+        this.subject = subject;
+        this.referenceEdges = referenceEdges;
+        this.subjectEdges = subjectEdges;
+    }
+
+    public GraphSnapshot getReference() {
+        return reference;
+    }
+
+    public GraphSnapshot getSubject() {
+        return subject;
+    }
+
+    public int referenceEdgeId(int referenceIndex) {
+        return referenceEdges[referenceIndex];
+    }
+
+    public int subjectEdgeId(int subjectIndex) {
+        return subjectEdges[subjectIndex];
+    }
+
+    // The search's reference edges as TransitionEdges, by edge index.
+    public List<TransitionEdge> getReferenceEdges() {
+        return edges(reference, referenceEdges);
+    }
+
+    // The search's subject edges as TransitionEdges, by edge index.
+    public List<TransitionEdge> getSubjectEdges() {
+        return edges(subject, subjectEdges);
+    }
+
+    private static List<TransitionEdge> edges(GraphSnapshot snapshot, int[] ids) {
+        return new AbstractList<TransitionEdge>() {
+            @Override
+            public TransitionEdge get(int index) {
+                return snapshot.edge(ids[index]);
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
+        };
+    }
+
+    public int getReferenceEdgeCount() {
+        return referenceEdges.length;
+    }
+
+    public int getSubjectEdgeCount() {
+        return subjectEdges.length;
+    }
+
+    /**
+     * Context of a sub-problem made of the given reference and subject edges, in
+     * ascending index order. The cost matrix is carried over; the estimator is not.
+     */
+    SearchContext restrict(int[] references, int[] subjects) {
+        int[] subReferences = new int[references.length];
+        for (int i = 0; i < references.length; i++) {
+            subReferences[i] = referenceEdges[references[i]];
+        }
+        int[] subSubjects = new int[subjects.length];
+        for (int j = 0; j < subjects.length; j++) {
+            subSubjects[j] = subjectEdges[subjects[j]];
+        }
+        SearchContext restricted = new SearchContext(reference, subject, subReferences, subSubjects);
+        restricted.setCostMatrix(costMatrix.restrict(references, subjects));
+        restricted.setControl(control);
+        return restricted;
+    }
+
+    public CostMatrix getCostMatrix() {
+        return costMatrix;
+    }
+
+    void setCostMatrix(CostMatrix costMatrix) {
+        this.costMatrix = costMatrix;
+    }
+
+    public Heuristic.Estimator getEstimator() {
+        return estimator;
+    }
+
+    void setEstimator(Heuristic.Estimator estimator) {
+        this.estimator = estimator;
+    }
+
+    EditState getIncumbent() {
+        return incumbent;
+    }
+
+    void setIncumbent(EditState incumbent) {
+        this.incumbent = incumbent;
+    }
+
+    SearchControl getControl() {
+        return control;
+    }
+
+    void setControl(SearchControl control) {
+        this.control = control;
+    }
+
+    SearchStatistics getStatistics() {
+        return statistics;
+    }
+}
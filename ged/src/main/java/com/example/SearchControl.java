@@ -0,0 +1,47 @@
+package com.example;
+
+/**
+ * Stop signal of one request, shared by every search of its comparison: an
+ * absolute deadline and a cancellation flag that another thread may set. Searches
+ * poll it through their {@link SearchBudget}; a stopped search ends like one whose
+ * budget ran out.
+ */
+final class SearchControl {
+
+    // Never stops; the default of every context.
+    static final SearchControl NONE = new SearchControl(0L);
+
+    // System.nanoTime() value to stop at, 0 for none.
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    SearchControl(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    // Deadline the given number of milliseconds from now; 0 for none.
+    static SearchControl withTimeout(long timeoutMillis) {
+        return timeoutMillis > 0 ? new SearchControl(System.nanoTime() + timeoutMillis * 1_000_000L)
+            : new SearchControl(0L);
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    boolean isPastDeadline() {
+        return deadlineNanos != 0 && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    boolean isStopped() {
+        return cancelled || isPastDeadline();
+    }
+}
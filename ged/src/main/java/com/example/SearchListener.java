@@ -0,0 +1,15 @@
+package com.example;
+
+/**
+ * Receives samples of a running search, for progress reporting or for feeding an
+ * event recorder such as JFR.
+ *
+ * The listener is called on the searching thread every
+ * {@link GraphEditDistanceCalculator#getProgressInterval()} expansions, with a
+ * copy of the statistics of the part being searched, and must return quickly.
+ * The hash-distributed parallel engine does not report progress.
+ */
+public interface SearchListener {
+
+    void onProgress(SearchStatistics statistics);
+}
@@ -0,0 +1,28 @@
+package com.example;
+
+/**
+ * Trade-off between optimality and search effort.
+ */
+public enum SearchMode {
+    // A*: the first complete state taken from the open list is optimal.
+    OPTIMAL,
+
+    /**
+     * Weighted A* ordering states by g + w*h. Expands far fewer states; the
+     * cost is at most w times the optimum.
+     */
+    WEIGHTED,
+
+    /**
+     * Level-by-level search that keeps only the best beamWidth states of each
+     * level. Memory and time are bounded, the result is not.
+     */
+    BEAM,
+
+    /**
+     * Weighted A* that keeps searching after its first complete state, pruning
+     * with the best one found, until the open list is exhausted (which proves
+     * optimality) or a budget runs out.
+     */
+    ANYTIME,
+}
@@ -0,0 +1,29 @@
+package com.example;
+
+/**
+ * What a search run produced: a complete state and the best lower bound on the
+ * optimal cost that the run could prove.
+ */
+final class SearchOutcome {
+
+    private final EditState goalState;
+    private final double lowerBound;
+
+    SearchOutcome(EditState goalState, double lowerBound) {
+        this.goalState = goalState;
+        // A bound above the cost found can only come from rounding.
+        this.lowerBound = Math.min(lowerBound, goalState.getCumulativeCost());
+    }
+
+    EditState getGoalState() {
+        return goalState;
+    }
+
+    double getLowerBound() {
+        return lowerBound;
+    }
+
+    boolean isOptimal() {
+        return lowerBound >= goalState.getCumulativeCost();
+    }
+}
@@ -0,0 +1,188 @@
+package com.example;
+
+/**
+ * Counters and phase timings of one comparison.
+ *
+ * A comparison that is split into independent parts searches each part with its
+ * own counters; the result carries their sum (peak sizes: the largest part), and
+ * phase times are summed over the parts, so with parallel components they can
+ * exceed the wall time.
+ *
+ * The heuristic is timed while it is prepared for a part, where its cost lies;
+ * the per-state estimates are constant-time updates and only counted.
+ */
+public final class SearchStatistics {
+
+    /**
+     * Stages of a comparison, in the order they run.
+     */
+    public enum Phase {
+        // Filtering and grouping the edges, building the cost matrix.
+        SETUP,
+        // Fixing zero-cost matches and splitting into independent parts.
+        KERNEL,
+        // Preparing the heuristic of every part.
+        HEURISTIC,
+        // The search itself, heuristic preparation excluded.
+        SEARCH,
+        // Turning edit paths into operations.
+        RENDERING,
+    }
+
+    private long generated;
+    private long expanded;
+    private long pruned;
+    private long duplicates;
+    private long peakOpenListSize;
+    private long heuristicEvaluations;
+    private long heuristicNanos;
+    private long costPairEvaluations;
+    private long labelDistanceRequests;
+    private long spilledStates;
+    private final long[] phaseNanos = new long[Phase.values().length];
+
+    void countGenerated(int states) {
+        generated += states;
+        heuristicEvaluations += states;
+    }
+
+    void countExpansion() {
+        expanded++;
+    }
+
+    void countPruned(long states) {
+        pruned += states;
+    }
+
+    void countDuplicate() {
+        duplicates++;
+    }
+
+    void observeOpenListSize(long size) {
+        peakOpenListSize = Math.max(peakOpenListSize, size);
+    }
+
+    // The root estimate; estimates of generated states are counted with them.
+    void countHeuristicEvaluation() {
+        heuristicEvaluations++;
+    }
+
+    void addHeuristicNanos(long nanos) {
+        heuristicNanos += nanos;
+    }
+
+    void countCostPairs(long pairs, long labelDistances) {
+        costPairEvaluations += pairs;
+        labelDistanceRequests += labelDistances;
+    }
+
+    void countSpilled(long states) {
+        spilledStates += states;
+    }
+
+    void addPhaseNanos(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    void merge(SearchStatistics other) {
+        generated += other.generated;
+        expanded += other.expanded;
+        pruned += other.pruned;
+        duplicates += other.duplicates;
+        peakOpenListSize = Math.max(peakOpenListSize, other.peakOpenListSize);
+        heuristicEvaluations += other.heuristicEvaluations;
+        heuristicNanos += other.heuristicNanos;
+        costPairEvaluations += other.costPairEvaluations;
+        labelDistanceRequests += other.labelDistanceRequests;
+        spilledStates += other.spilledStates;
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] += other.phaseNanos[i];
+        }
+    }
+
+    SearchStatistics copy() {
+        SearchStatistics copy = new SearchStatistics();
+        copy.merge(this);
+        return copy;
+    }
+
+    // States created as children of an expanded state (or along a constructed path).
+    public long getGenerated() {
+        return generated;
+    }
+
+    public long getExpanded() {
+        return expanded;
+    }
+
+    // States discarded because their f-value cannot beat the best solution, or cut from a beam.
+    public long getPruned() {
+        return pruned;
+    }
+
+    // States dropped because their partial matching was already reached at least as cheaply.
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    // Largest open list (A*), beam level or total of the worker open lists seen.
+    public long getPeakOpenListSize() {
+        return peakOpenListSize;
+    }
+
+    public long getHeuristicEvaluations() {
+        return heuristicEvaluations;
+    }
+
+    public long getHeuristicNanos() {
+        return heuristicNanos;
+    }
+
+    // Edge pairs whose substitution and reassignment costs were computed.
+    public long getCostPairEvaluations() {
+        return costPairEvaluations;
+    }
+
+    // Label distances requested from the label distance service.
+    public long getLabelDistanceRequests() {
+        return labelDistanceRequests;
+    }
+
+    // Open states written to disk by a memory-bounded search.
+    public long getSpilledStates() {
+        return spilledStates;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long nanos : phaseNanos) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder phases = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            phases.append(", ").append(phase.name().toLowerCase()).append("Micros=")
+                  .append(phaseNanos[phase.ordinal()] / 1000);
+        }
+        return "SearchStatistics{" +
+               "generated=" + generated +
+               ", expanded=" + expanded +
+               ", pruned=" + pruned +
+               ", duplicates=" + duplicates +
+               ", peakOpenListSize=" + peakOpenListSize +
+               ", heuristicEvaluations=" + heuristicEvaluations +
+               ", costPairEvaluations=" + costPairEvaluations +
+               ", labelDistanceRequests=" + labelDistanceRequests +
+               ", spilledStates=" + spilledStates +
+               phases +
+               '}';
+    }
+}
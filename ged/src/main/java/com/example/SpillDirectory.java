@@ -0,0 +1,138 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Private temporary directory of one memory-bounded search, holding the files
+ * its spilled data is mapped from. Every file is mapped once, read-write, and
+ * stays mapped until it is released or the directory is closed; the mapped pages
+ * live in the operating system's page cache, not on the Java heap.
+ *
+ * Releasing a buffer unmaps it at once and deletes its file, so that files are
+ * not kept open until the garbage collector gets to their buffers (which on
+ * Windows also prevents deletion). Closing releases every buffer still mapped
+ * and deletes the directory. A released buffer must not be accessed again.
+ */
+final class SpillDirectory implements AutoCloseable {
+
+    // sun.misc.Unsafe.invokeCleaner and its receiver, or null where they are unavailable:
+    // the only way to unmap a buffer before it is collected.
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final Path directory;
+    // By identity of the view handed out.
+    private final Map<LongBuffer, Mapping> mappings = new IdentityHashMap<>();
+    private int fileCount;
+    private long mappedBytes;
+
+    SpillDirectory(Path parent) {
+        try {
+            Files.createDirectories(parent);
+            this.directory = Files.createTempDirectory(parent, "ged-spill");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create spill directory in " + parent, e);
+        }
+    }
+
+    // A new zero-filled file of the given number of longs, mapped in native byte order.
+    LongBuffer map(int longs) {
+        Path file = directory.resolve("spill-" + fileCount++ + ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping outlives the channel.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, 8L * longs);
+            LongBuffer view = buffer.order(ByteOrder.nativeOrder()).asLongBuffer();
+            mappings.put(view, new Mapping(file, buffer));
+            mappedBytes += 8L * longs;
+            return view;
+        } catch (IOException e) {
+            delete(file);
+            throw new UncheckedIOException("Cannot map spill file " + file, e);
+        }
+    }
+
+    // Unmaps a buffer returned by map and deletes its file.
+    void release(LongBuffer view) {
+        Mapping mapping = mappings.remove(view);
+        if (mapping != null) {
+            mappedBytes -= mapping.buffer.capacity();
+            unmap(mapping.buffer);
+            delete(mapping.file);
+        }
+    }
+
+    // Bytes mapped and not released yet.
+    long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    @Override
+    public void close() {
+        for (LongBuffer view : new ArrayList<>(mappings.keySet())) {
+            release(view);
+        }
+        delete(directory);
+    }
+
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // Left to the garbage collector.
+        }
+    }
+
+    // A file that cannot be deleted now (still mapped without invokeCleaner) is left to the JVM's exit.
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            path.toFile().deleteOnExit();
+        }
+    }
+
+    private static final class Mapping {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+
+        Mapping(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+}
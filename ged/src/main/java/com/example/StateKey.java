@@ -0,0 +1,135 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Canonical, order-independent identity of a search state.
+ *
+ * A key records which reference and which subject edges have already been
+ * consumed (matched, deleted or inserted), as two bitsets over the edge
+ * indices of the {@link SearchContext}. Every edit cost depends only on the
+ * edges of one operation, so the cheapest completion of a state depends only
+ * on the edges that are still unmatched: two states with the same key have
+ * the same remaining sub-problem, however their mappings were built up.
+ */
+public final class StateKey {
+
+    private final long[] referenceWords;
+    private final long[] subjectWords;
+    private final int hash;
+
+    private StateKey(long[] referenceWords, long[] subjectWords) {
+        this.referenceWords = referenceWords;
+        this.subjectWords = subjectWords;
+        this.hash = 31 * Arrays.hashCode(referenceWords) + Arrays.hashCode(subjectWords);
+    }
+
+    // Key of the initial state: nothing consumed yet.
+    public static StateKey empty(int referenceEdgeCount, int subjectEdgeCount) {
+        return new StateKey(new long[wordCount(referenceEdgeCount)], new long[wordCount(subjectEdgeCount)]);
+    }
+
+    private static int wordCount(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    public StateKey consumeReference(int index) {
+        return new StateKey(set(referenceWords, index), subjectWords);
+    }
+
+    public StateKey consumeSubject(int index) {
+        return new StateKey(referenceWords, set(subjectWords, index));
+    }
+
+    public StateKey consumePair(int referenceIndex, int subjectIndex) {
+        return new StateKey(set(referenceWords, referenceIndex), set(subjectWords, subjectIndex));
+    }
+
+    private static long[] set(long[] words, int index) {
+        long[] copy = words.clone();
+        copy[index >>> 6] |= 1L << index;
+        return copy;
+    }
+
+    public boolean isReferenceConsumed(int index) {
+        return (referenceWords[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public boolean isSubjectConsumed(int index) {
+        return (subjectWords[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // First reference index in [from, count) that is not consumed, or -1.
+    public int nextUnconsumedReference(int from, int count) {
+        return nextClear(referenceWords, from, count);
+    }
+
+    // First subject index in [from, count) that is not consumed, or -1.
+    public int nextUnconsumedSubject(int from, int count) {
+        return nextClear(subjectWords, from, count);
+    }
+
+    private static int nextClear(long[] words, int from, int count) {
+        if (from >= count) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long free = ~words[word] & (-1L << from);
+        while (true) {
+            if (free != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(free);
+                return index < count ? index : -1;
+            }
+            if (++word == words.length) {
+                return -1;
+            }
+            free = ~words[word];
+        }
+    }
+
+    // Number of longs of the key: the reference words, then the subject words.
+    int getWordCount() {
+        return referenceWords.length + subjectWords.length;
+    }
+
+    long getWord(int index) {
+        return index < referenceWords.length ? referenceWords[index] : subjectWords[index - referenceWords.length];
+    }
+
+    // Inverse of getWord: a key over the given words, split like the template's.
+    static StateKey fromWords(long[] words, StateKey template) {
+        int split = template.referenceWords.length;
+        return new StateKey(Arrays.copyOfRange(words, 0, split), Arrays.copyOfRange(words, split, words.length));
+    }
+
+    int countConsumedReferences() {
+        return bitCount(referenceWords);
+    }
+
+    int countConsumedSubjects() {
+        return bitCount(subjectWords);
+    }
+
+    private static int bitCount(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StateKey)) return false;
+        StateKey other = (StateKey) o;
+        return hash == other.hash
+            && Arrays.equals(referenceWords, other.referenceWords)
+            && Arrays.equals(subjectWords, other.subjectWords);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the cheapest known g-value for every canonical state key.
+ * A state is only worth putting on the open list if it reaches its key more
+ * cheaply than any state seen before it.
+ */
+public class TranspositionTable {
+
+    private final Map<StateKey, Double> bestCost = new HashMap<>();
+
+    /**
+     * Records the state if it improves on the best known g-value for its key.
+     * Returns false if an equal or cheaper path to the same key is already known,
+     * in which case the state should be dropped.
+     */
+    public boolean offer(EditState state) {
+        Double known = bestCost.get(state.getKey());
+        if (known != null && known <= state.getCumulativeCost()) {
+            return false;
+        }
+        bestCost.put(state.getKey(), state.getCumulativeCost());
+        return true;
+    }
+
+    /**
+     * True if a cheaper path to the state's key was recorded after the state was
+     * queued, so expanding it again would only repeat work.
+     */
+    public boolean isSuperseded(EditState state) {
+        Double known = bestCost.get(state.getKey());
+        return known != null && known < state.getCumulativeCost();
+    }
+
+    public int size() {
+        return bestCost.size();
+    }
+}
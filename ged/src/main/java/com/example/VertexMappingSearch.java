@@ -0,0 +1,399 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Edit distance under a mapping of reference states onto subject states.
+ *
+ * Instead of comparing endpoint names literally, the reference states are
+ * assigned to distinct subject states or to none, and two edges count as having
+ * the same endpoints when the mapping takes the one's endpoints onto the other's.
+ * For a fixed mapping every edit cost depends on one edge pair only, so the edges
+ * are matched by a single assignment solve ({@link BipartiteGedSolver}).
+ *
+ * The mapping is found by depth-first branch and bound over the reference
+ * states, so the depth is the number of states instead of the number of edges.
+ * At a partial mapping a pair whose endpoints may still go either way gets the
+ * cheaper of its two costs, and the assignment over these relaxed costs is a
+ * lower bound on every completion; at a complete mapping it is exact.
+ *
+ * Only states touched by non-COMMON edges are mapped. A reference state that
+ * also has COMMON edges and exists in the subject graph keeps its name: the
+ * COMMON edges are already matched under that identity, so its subject namesake
+ * is never available to another state, whether or not it is searched itself.
+ */
+final class VertexMappingSearch {
+
+    private static final int UNASSIGNED = -1;
+    // Mapped to no subject state.
+    private static final int NONE = -2;
+
+    private static final int NO = 0;
+    private static final int MAYBE = 1;
+    private static final int YES = 2;
+
+    private final SearchContext context;
+    private final CostModel model;
+    private final SearchBudget budget;
+    private final double deleteAndInsert;
+
+    private final List<String> referenceStates = new ArrayList<>();
+    private final List<String> subjectStates = new ArrayList<>();
+
+    // Endpoints of the edges as state ids of their own side.
+    private final int[] referenceSource;
+    private final int[] referenceTarget;
+    private final int[] subjectSource;
+    private final int[] subjectTarget;
+
+    // Cheapest match of each edge pair when the mapping aligns their endpoints, and when it does not,
+    // and whether substitution (rather than reassignment) is that cheapest match.
+    private final double[][] alignedCost;
+    private final double[][] unalignedCost;
+    private final boolean[][] alignedBySubstitution;
+    private final boolean[][] unalignedBySubstitution;
+
+    // Reference states still to be mapped, most connected first.
+    private final int[] order;
+
+    // Current partial mapping: subject state id, NONE or UNASSIGNED per reference state.
+    private final int[] image;
+    private final boolean[] taken;
+
+    private int[] bestImage;
+    private double bestCost;
+    private boolean interrupted;
+
+    VertexMappingSearch(SearchContext context, GraphEditDistanceCalculator calculator, SearchBudget budget) {
+        this.context = context;
+        this.model = calculator.getCostModel();
+        this.budget = budget;
+        this.deleteAndInsert = model.getDeletionCost() + model.getInsertionCost();
+
+        GraphSnapshot reference = context.getReference();
+        GraphSnapshot subject = context.getSubject();
+        int[] referenceIds = new int[reference.getVertexCount()];
+        int[] subjectIds = new int[subject.getVertexCount()];
+        Arrays.fill(referenceIds, -1);
+        Arrays.fill(subjectIds, -1);
+        List<Integer> referenceVertices = new ArrayList<>();
+        int n = context.getReferenceEdgeCount();
+        int m = context.getSubjectEdgeCount();
+        referenceSource = new int[n];
+        referenceTarget = new int[n];
+        for (int r = 0; r < n; r++) {
+            int edge = context.referenceEdgeId(r);
+            referenceSource[r] = id(reference, reference.source(edge), referenceIds, referenceStates, referenceVertices);
+            referenceTarget[r] = id(reference, reference.target(edge), referenceIds, referenceStates, referenceVertices);
+        }
+        subjectSource = new int[m];
+        subjectTarget = new int[m];
+        for (int s = 0; s < m; s++) {
+            int edge = context.subjectEdgeId(s);
+            subjectSource[s] = id(subject, subject.source(edge), subjectIds, subjectStates, new ArrayList<>());
+            subjectTarget[s] = id(subject, subject.target(edge), subjectIds, subjectStates, new ArrayList<>());
+        }
+
+        alignedCost = new double[n][m];
+        unalignedCost = new double[n][m];
+        alignedBySubstitution = new boolean[n][m];
+        unalignedBySubstitution = new boolean[n][m];
+        Map<String, Double> labelDistances = new HashMap<>();
+        for (int r = 0; r < n; r++) {
+            int refEdge = context.referenceEdgeId(r);
+            String refInput = reference.label(reference.input(refEdge));
+            String refOutput = reference.label(reference.output(refEdge));
+            for (int s = 0; s < m; s++) {
+                int subjEdge = context.subjectEdgeId(s);
+                String subjInput = subject.label(subject.input(subjEdge));
+                String subjOutput = subject.label(subject.output(subjEdge));
+                boolean labelsMatch = refInput.equals(subjInput) && refOutput.equals(subjOutput);
+                double inputCost = labelDistance(refInput, subjInput, labelDistances, calculator);
+                double outputCost = labelDistance(refOutput, subjOutput, labelDistances, calculator);
+
+                double substitution = model.substitutionCost(true, inputCost, outputCost);
+                double reassignment = model.reassignmentCost(labelsMatch, true);
+                alignedBySubstitution[r][s] = substitution <= reassignment;
+                alignedCost[r][s] = Math.min(substitution, reassignment);
+
+                substitution = model.substitutionCost(false, inputCost, outputCost);
+                reassignment = model.reassignmentCost(labelsMatch, false);
+                unalignedBySubstitution[r][s] = substitution <= reassignment;
+                unalignedCost[r][s] = Math.min(substitution, reassignment);
+            }
+        }
+
+        image = new int[referenceStates.size()];
+        taken = new boolean[subjectStates.size()];
+        Arrays.fill(image, UNASSIGNED);
+        int[] degree = new int[referenceStates.size()];
+        for (int r = 0; r < n; r++) {
+            degree[referenceSource[r]]++;
+            degree[referenceTarget[r]]++;
+        }
+        Set<String> subjectNames = new HashSet<>();
+        for (int w = 0; w < subject.getVertexCount(); w++) {
+            subjectNames.add(subject.vertexName(w));
+        }
+        Map<String, Integer> subjectStateIds = new HashMap<>();
+        for (int w = 0; w < subjectStates.size(); w++) {
+            subjectStateIds.put(subjectStates.get(w), w);
+        }
+        // A reference state with COMMON edges holds its namesake even if none of its edges is searched.
+        for (int u = 0; u < reference.getVertexCount(); u++) {
+            Integer same = subjectStateIds.get(reference.vertexName(u));
+            if (same != null && reference.hasCommonEdge(u)) {
+                taken[same] = true;
+            }
+        }
+        List<Integer> free = new ArrayList<>();
+        for (int v = 0; v < referenceStates.size(); v++) {
+            String name = referenceStates.get(v);
+            if (reference.hasCommonEdge(referenceVertices.get(v)) && subjectNames.contains(name)) {
+                Integer same = subjectStateIds.get(name);
+                image[v] = same == null ? NONE : same;
+            } else {
+                free.add(v);
+            }
+        }
+        free.sort((a, b) -> Integer.compare(degree[b], degree[a]));
+        order = new int[free.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = free.get(i);
+        }
+    }
+
+    // State id of a snapshot vertex, assigned on first sight.
+    private static int id(GraphSnapshot snapshot, int vertex, int[] ids, List<String> names, List<Integer> vertices) {
+        if (ids[vertex] < 0) {
+            ids[vertex] = names.size();
+            names.add(snapshot.vertexName(vertex));
+            vertices.add(vertex);
+        }
+        return ids[vertex];
+    }
+
+    private static double labelDistance(String a, String b, Map<String, Double> cache,
+                                        GraphEditDistanceCalculator calculator) {
+        if (a.equals(b)) {
+            return 0.0;
+        }
+        return cache.computeIfAbsent(a + '\u0000' + b, k -> calculator.computeStringCost(a, b));
+    }
+
+    Result run() {
+        // Start from the literal mapping: every state onto the subject state of the same name, if free.
+        Map<String, Integer> subjectIds = new HashMap<>();
+        for (int w = 0; w < subjectStates.size(); w++) {
+            subjectIds.put(subjectStates.get(w), w);
+        }
+        int[] literal = image.clone();
+        boolean[] literalTaken = taken.clone();
+        for (int v : order) {
+            Integer same = subjectIds.get(referenceStates.get(v));
+            literal[v] = same != null && !literalTaken[same] ? same : NONE;
+            if (literal[v] >= 0) {
+                literalTaken[literal[v]] = true;
+            }
+        }
+        bestImage = literal;
+        bestCost = cost(assign(literal, literalTaken), literal, literalTaken);
+
+        double rootBound = cost(assign(image, taken), image, taken);
+        if (rootBound < bestCost) {
+            search(0);
+        }
+        double lowerBound = interrupted ? Math.min(rootBound, bestCost) : bestCost;
+        return new Result(bestImage, lowerBound, !interrupted);
+    }
+
+    private void search(int depth) {
+        if (interrupted) {
+            return;
+        }
+        if (budget.isExhausted()) {
+            interrupted = true;
+            return;
+        }
+        budget.countExpansion();
+        int v = order[depth];
+
+        // Bound every child first, then descend into the most promising ones.
+        List<double[]> children = new ArrayList<>();
+        for (int w = 0; w <= subjectStates.size(); w++) {
+            int target = w == subjectStates.size() ? NONE : w;
+            if (target >= 0 && taken[target]) {
+                continue;
+            }
+            assignState(v, target);
+            children.add(new double[] {cost(assign(image, taken), image, taken), target});
+            assignState(v, UNASSIGNED);
+        }
+        children.sort((a, b) -> Double.compare(a[0], b[0]));
+        budget.getStatistics().countGenerated(children.size());
+
+        for (int i = 0; i < children.size(); i++) {
+            double[] child = children.get(i);
+            if (child[0] >= bestCost) {
+                budget.getStatistics().countPruned(children.size() - i);
+                break;
+            }
+            assignState(v, (int) child[1]);
+            if (depth + 1 == order.length) {
+                // Complete mapping: the bound is the exact cost.
+                bestCost = child[0];
+                bestImage = image.clone();
+            } else {
+                search(depth + 1);
+            }
+            assignState(v, UNASSIGNED);
+            if (interrupted) {
+                return;
+            }
+        }
+    }
+
+    private void assignState(int v, int target) {
+        if (image[v] >= 0) {
+            taken[image[v]] = false;
+        }
+        image[v] = target;
+        if (target >= 0) {
+            taken[target] = true;
+        }
+    }
+
+    // Whether the mapping can still align the endpoints of the two edges.
+    private int alignment(int r, int s, int[] mapping, boolean[] used) {
+        boolean loop = referenceSource[r] == referenceTarget[r];
+        if (loop != (subjectSource[s] == subjectTarget[s])) {
+            return NO;
+        }
+        int source = endpoint(referenceSource[r], subjectSource[s], mapping, used);
+        int target = endpoint(referenceTarget[r], subjectTarget[s], mapping, used);
+        return Math.min(source, target);
+    }
+
+    private static int endpoint(int v, int w, int[] mapping, boolean[] used) {
+        if (mapping[v] == UNASSIGNED) {
+            return used[w] ? NO : MAYBE;
+        }
+        return mapping[v] == w ? YES : NO;
+    }
+
+    private double pairCost(int r, int s, int[] mapping, boolean[] used) {
+        switch (alignment(r, s, mapping, used)) {
+            case YES:
+                return alignedCost[r][s];
+            case NO:
+                return unalignedCost[r][s];
+            default:
+                return Math.min(alignedCost[r][s], unalignedCost[r][s]);
+        }
+    }
+
+    // Optimal edge assignment under the (partial) mapping: subject edge per reference edge, or -1.
+    private int[] assign(int[] mapping, boolean[] used) {
+        int n = referenceSource.length;
+        int m = subjectSource.length;
+        int[][] candidates = new int[n][];
+        double[][] costs = new double[n][];
+        int[] row = new int[m];
+        double[] rowCosts = new double[m];
+        for (int r = 0; r < n; r++) {
+            int size = 0;
+            for (int s = 0; s < m; s++) {
+                double cost = pairCost(r, s, mapping, used);
+                if (cost < deleteAndInsert) {
+                    row[size] = s;
+                    rowCosts[size++] = cost;
+                }
+            }
+            candidates[r] = Arrays.copyOf(row, size);
+            costs[r] = Arrays.copyOf(rowCosts, size);
+        }
+        return new BipartiteGedSolver(m, candidates, costs, deleteAndInsert).solve();
+    }
+
+    private double cost(int[] subjectOfReference, int[] mapping, boolean[] used) {
+        int matched = 0;
+        double total = 0.0;
+        for (int r = 0; r < subjectOfReference.length; r++) {
+            int s = subjectOfReference[r];
+            if (s < 0) {
+                total += model.getDeletionCost();
+            } else {
+                total += pairCost(r, s, mapping, used);
+                matched++;
+            }
+        }
+        return total + (subjectSource.length - matched) * model.getInsertionCost();
+    }
+
+    /**
+     * The best mapping found and its edge assignment.
+     */
+    final class Result {
+        private final int[] mapping;
+        private final int[] subjectOfReference;
+        private final double lowerBound;
+        private final boolean optimal;
+
+        private Result(int[] mapping, double lowerBound, boolean optimal) {
+            this.mapping = mapping;
+            boolean[] used = new boolean[subjectStates.size()];
+            for (int w : mapping) {
+                if (w >= 0) {
+                    used[w] = true;
+                }
+            }
+            this.subjectOfReference = assign(mapping, used);
+            this.lowerBound = lowerBound;
+            this.optimal = optimal;
+        }
+
+        // Subject edge matched with the reference edge, or -1 if it is deleted.
+        int subjectOf(int referenceIndex) {
+            return subjectOfReference[referenceIndex];
+        }
+
+        EditOperation.OperationType matchType(int referenceIndex) {
+            int s = subjectOfReference[referenceIndex];
+            boolean aligned = alignment(referenceIndex, s, mapping, new boolean[subjectStates.size()]) == YES;
+            boolean bySubstitution = aligned ? alignedBySubstitution[referenceIndex][s] : unalignedBySubstitution[referenceIndex][s];
+            return bySubstitution ? EditOperation.OperationType.SUBSTITUTION : EditOperation.OperationType.REASSIGNMENT;
+        }
+
+        double matchCost(int referenceIndex) {
+            int s = subjectOfReference[referenceIndex];
+            return alignment(referenceIndex, s, mapping, new boolean[subjectStates.size()]) == YES
+                ? alignedCost[referenceIndex][s] : unalignedCost[referenceIndex][s];
+        }
+
+        // Reference state name -> subject state name, for the states mapped onto one.
+        Map<String, String> getStateMapping() {
+            Map<String, String> states = new LinkedHashMap<>();
+            for (int v = 0; v < mapping.length; v++) {
+                if (mapping[v] >= 0) {
+                    states.put(referenceStates.get(v), subjectStates.get(mapping[v]));
+                }
+            }
+            return states;
+        }
+
+        double getLowerBound() {
+            return lowerBound;
+        }
+
+        boolean isOptimal() {
+            return optimal;
+        }
+    }
+}
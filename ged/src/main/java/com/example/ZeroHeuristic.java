@@ -0,0 +1,40 @@
+package com.example;
+
+/**
+ * Estimates nothing, which turns A* into uniform-cost search.
+ * Useful as a baseline and for checking other heuristics.
+ */
+public class ZeroHeuristic implements Heuristic {
+
+    private static final Estimator ZERO = new Estimator() {
+        @Override
+        public double initialEstimate() {
+            return 0.0;
+        }
+
+        @Override
+        public double afterMatch(double parentEstimate, int referenceIndex, int subjectIndex) {
+            return 0.0;
+        }
+
+        @Override
+        public double afterDeletion(double parentEstimate, int referenceIndex) {
+            return 0.0;
+        }
+
+        @Override
+        public double afterInsertion(double parentEstimate, int subjectIndex) {
+            return 0.0;
+        }
+
+        @Override
+        public boolean isIntegral() {
+            return true;
+        }
+    };
+
+    @Override
+    public Estimator prepare(SearchContext context, GraphEditDistanceCalculator calculator) {
+        return ZERO;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jgrapht.Graph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks that automata survive a round trip through the binary format.
+ */
+public class AutomatonFormatTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripKeepsGraphsAndDistance() throws Exception
+    {
+        Graph<String, TransitionEdge> reference = GraphFactory.createReferenceGraph();
+        Graph<String, TransitionEdge> subject = GraphFactory.createSubjectGraph();
+        Graph<String, TransitionEdge> synthetic = SyntheticAutomata.create( 7, 12, 5, 0.2 ).getSubject();
+        Path file = folder.newFile( "corpus.bin" ).toPath();
+        AutomatonFormat.write( file, Arrays.asList( reference, subject, synthetic ) );
+
+        List<GraphSnapshot> loaded = AutomatonFormat.read( file );
+        assertEquals( 3, loaded.size() );
+        assertEquals( GraphFingerprint.of( reference ), GraphFingerprint.of( loaded.get( 0 ) ) );
+        assertEquals( GraphFingerprint.of( subject ), GraphFingerprint.of( loaded.get( 1 ) ) );
+        assertEquals( GraphFingerprint.of( synthetic ), GraphFingerprint.of( loaded.get( 2 ) ) );
+        assertEquals( synthetic.edgeSet().size(), loaded.get( 2 ).getEdgeCount() );
+
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        GraphMatchResult result = calculator.computeDetailedEditDistance( loaded.get( 0 ), loaded.get( 1 ) );
+        assertEquals( 82.0, result.getTotalCost(), 0.0 );
+        assertEquals( calculator.computeDetailedEditDistance( reference, subject ).getOperations().size(),
+            result.getOperations().size() );
+    }
+}
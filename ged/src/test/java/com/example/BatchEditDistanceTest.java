@@ -0,0 +1,150 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.junit.Test;
+
+/**
+ * Checks the batch queries against one comparison at a time.
+ */
+public class BatchEditDistanceTest
+{
+    private final GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+    private final List<Graph<String, TransitionEdge>> corpus = new ArrayList<>();
+    private final Graph<String, TransitionEdge> query = SyntheticAutomata.create( 1, 4, 2, 0.5 ).getReference();
+
+    public BatchEditDistanceTest()
+    {
+        for ( long seed = 1; seed <= 8; seed++ )
+        {
+            corpus.add( SyntheticAutomata.create( seed, 4, 2, 0.5 ).getSubject() );
+        }
+    }
+
+    @Test
+    public void lowerBoundNeverExceedsDistance()
+    {
+        EdgeSummary querySummary = EdgeSummary.of( query );
+        for ( Graph<String, TransitionEdge> subject : corpus )
+        {
+            double bound = EdgeSummary.lowerBound( querySummary, EdgeSummary.of( subject ), calculator );
+            assertTrue( bound <= calculator.computeEditDistance( query, subject ) );
+        }
+        double example = EdgeSummary.lowerBound( EdgeSummary.of( GraphFactory.createReferenceGraph() ),
+            EdgeSummary.of( GraphFactory.createSubjectGraph() ), calculator );
+        assertTrue( example <= 82.0 );
+    }
+
+    @Test
+    public void lowerBoundAllowsRelabelsCheaperThanRewires()
+    {
+        Graph<String, TransitionEdge> reference = singleEdgeGraph( "a", "x", DiffType.REFERENCE_ONLY );
+        Graph<String, TransitionEdge> subject = singleEdgeGraph( "b", "x", DiffType.SUBJECT_ONLY );
+        subject.addVertex( "C" );
+        subject.addVertex( "D" );
+        subject.addEdge( "C", "D", new TransitionEdge( "a", "x", DiffType.SUBJECT_ONLY ) );
+        double distance = calculator.computeEditDistance( reference, subject );
+        assertEquals( 11.0, distance, 0.0 );
+        assertTrue( EdgeSummary.lowerBound( EdgeSummary.of( reference ), EdgeSummary.of( subject ), calculator ) <= distance );
+        double[][] matrix = new BatchEditDistance( calculator ).distanceMatrix( Arrays.asList( reference ),
+            Arrays.asList( subject ), distance );
+        assertEquals( distance, matrix[0][0], 0.0 );
+    }
+
+    @Test
+    public void lowerBoundAllowsCheapDoubleRelabels()
+    {
+        calculator.setCostModel( new CostModel( 10.0, 10.0, 250.0, 0.5, 250.0, 2.0 ) );
+        Graph<String, TransitionEdge> reference = singleEdgeGraph( "a", "x", DiffType.REFERENCE_ONLY );
+        Graph<String, TransitionEdge> subject = singleEdgeGraph( "b", "y", DiffType.SUBJECT_ONLY );
+        double distance = calculator.computeEditDistance( reference, subject );
+        assertEquals( 0.5, distance, 0.0 );
+        assertTrue( EdgeSummary.lowerBound( EdgeSummary.of( reference ), EdgeSummary.of( subject ), calculator ) <= distance );
+    }
+
+    @Test
+    public void vertexMappingBatchKeepsRenamedCopies()
+    {
+        calculator.setEngine( Engine.VERTEX_MAPPING );
+        List<Graph<String, TransitionEdge>> withCopy = new ArrayList<>( corpus );
+        withCopy.add( renamedCopy( query ) );
+        int copy = withCopy.size() - 1;
+        assertEquals( 0.0, calculator.computeEditDistance( query, withCopy.get( copy ) ), 0.0 );
+
+        BatchEditDistance batch = new BatchEditDistance( calculator );
+        assertEquals( 0.0, batch.distanceMatrix( Arrays.asList( query ), withCopy, 0.0 )[0][copy], 0.0 );
+        List<BatchEditDistance.Neighbor> nearest = batch.nearest( query, withCopy, 1 );
+        assertEquals( 0.0, nearest.get( 0 ).getDistance(), 0.0 );
+        List<BatchEditDistance.Neighbor> within = batch.withinDistance( query, withCopy, 0.0 );
+        assertEquals( copy, within.get( within.size() - 1 ).getIndex() );
+    }
+
+    @Test
+    public void batchQueriesMatchSingleComparisons()
+    {
+        double[] expected = new double[corpus.size()];
+        for ( int i = 0; i < corpus.size(); i++ )
+        {
+            expected[i] = calculator.computeEditDistance( query, corpus.get( i ) );
+        }
+        BatchEditDistance batch = new BatchEditDistance( calculator );
+
+        double[][] matrix = batch.distanceMatrix( Arrays.asList( query ), corpus );
+        for ( int i = 0; i < corpus.size(); i++ )
+        {
+            assertEquals( expected[i], matrix[0][i], 0.0 );
+        }
+
+        double[] sorted = expected.clone();
+        Arrays.sort( sorted );
+        List<BatchEditDistance.Neighbor> nearest = batch.nearest( query, corpus, 3 );
+        assertEquals( 3, nearest.size() );
+        for ( int i = 0; i < 3; i++ )
+        {
+            assertEquals( sorted[i], nearest.get( i ).getDistance(), 0.0 );
+            assertEquals( expected[nearest.get( i ).getIndex()], nearest.get( i ).getDistance(), 0.0 );
+        }
+
+        double threshold = sorted[3];
+        int within = 0;
+        for ( double distance : expected )
+        {
+            within += distance <= threshold ? 1 : 0;
+        }
+        assertEquals( within, batch.withinDistance( query, corpus, threshold ).size() );
+    }
+
+    private static Graph<String, TransitionEdge> singleEdgeGraph( String input, String output, DiffType type )
+    {
+        Graph<String, TransitionEdge> graph = GraphTypeBuilder.<String, TransitionEdge>directed()
+            .allowingMultipleEdges( true ).allowingSelfLoops( true ).edgeClass( TransitionEdge.class ).buildGraph();
+        graph.addVertex( "A" );
+        graph.addVertex( "B" );
+        graph.addEdge( "A", "B", new TransitionEdge( input, output, type ) );
+        return graph;
+    }
+
+    // The same automaton with every state renamed.
+    private static Graph<String, TransitionEdge> renamedCopy( Graph<String, TransitionEdge> graph )
+    {
+        Graph<String, TransitionEdge> copy = GraphTypeBuilder.<String, TransitionEdge>directed()
+            .allowingMultipleEdges( true ).allowingSelfLoops( true ).edgeClass( TransitionEdge.class ).buildGraph();
+        for ( String vertex : graph.vertexSet() )
+        {
+            copy.addVertex( "renamed-" + vertex );
+        }
+        for ( TransitionEdge edge : graph.edgeSet() )
+        {
+            copy.addEdge( "renamed-" + graph.getEdgeSource( edge ), "renamed-" + graph.getEdgeTarget( edge ),
+                new TransitionEdge( edge.getInput(), edge.getOutput(), edge.getType() ) );
+        }
+        return copy;
+    }
+}
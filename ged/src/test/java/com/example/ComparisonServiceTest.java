@@ -0,0 +1,63 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Checks the asynchronous service against the calculator it wraps.
+ */
+public class ComparisonServiceTest
+{
+    private final GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+
+    @Test
+    public void futureCompletesWithCalculatorResult() throws Exception
+    {
+        try ( ComparisonService service = new ComparisonService( calculator ) )
+        {
+            GraphMatchResult result = service.submit( GraphFactory.createReferenceGraph(),
+                GraphFactory.createSubjectGraph() ).get( 10, TimeUnit.SECONDS );
+            assertEquals( 82.0, result.getTotalCost(), 0.0 );
+            assertTrue( result.isOptimal() );
+            assertEquals( service.getCapacity(), service.getAvailableCapacity() );
+        }
+    }
+
+    @Test
+    public void cancellingTheFutureStopsTheSearch() throws Exception
+    {
+        calculator.setKernelization( false );
+        calculator.setProgressInterval( 1 );
+        AtomicReference<CompletableFuture<GraphMatchResult>> running = new AtomicReference<>();
+        AtomicInteger samples = new AtomicInteger();
+        calculator.setSearchListener( statistics -> {
+            samples.incrementAndGet();
+            while ( running.get() == null )
+            {
+                Thread.yield();
+            }
+            running.get().cancel( true );
+        } );
+
+        try ( ComparisonService service = new ComparisonService( calculator ) )
+        {
+            running.set( service.submit( GraphFactory.createReferenceGraph(), GraphFactory.createSubjectGraph() ) );
+            long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos( 10 );
+            while ( service.getAvailableCapacity() < service.getCapacity() || samples.get() == 0 )
+            {
+                assertTrue( System.nanoTime() < waitUntil );
+                Thread.sleep( 1 );
+            }
+            assertTrue( running.get().isCancelled() );
+            // The search stops at the first budget check after the cancellation.
+            assertEquals( 1, samples.get() );
+        }
+    }
+}
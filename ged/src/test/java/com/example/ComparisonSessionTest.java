@@ -0,0 +1,64 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks incremental results against comparisons from scratch.
+ */
+public class ComparisonSessionTest
+{
+    private final GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+    private final SyntheticAutomata automata = SyntheticAutomata.create( 3, 6, 3, 0.3 );
+
+    @Test
+    public void matchesFreshComputationAfterEveryChange()
+    {
+        ComparisonSession session = new ComparisonSession( calculator, automata.getReference(), automata.getSubject() );
+        assertFresh( session );
+
+        List<TransitionEdge> changed = new ArrayList<>();
+        for ( TransitionEdge edge : session.getSubjectGraph().edgeSet() )
+        {
+            if ( edge.getType() == DiffType.SUBJECT_ONLY )
+            {
+                changed.add( edge );
+            }
+        }
+        session.relabelEdge( changed.get( 0 ), changed.get( 0 ).getInput(), "OUT_0" );
+        assertFresh( session );
+        session.removeEdge( changed.get( 1 ) );
+        assertFresh( session );
+        session.addEdge( "S1", "S2", new TransitionEdge( "IN_0", "OUT_1", DiffType.SUBJECT_ONLY ) );
+        assertFresh( session );
+    }
+
+    @Test
+    public void unchangedComponentsAreNotSearchedAgain()
+    {
+        ComparisonSession session = new ComparisonSession( calculator, automata.getReference(), automata.getSubject() );
+        double before = session.getResult().getTotalCost();
+
+        // Shares no state or label with the rest, so it can only be inserted.
+        session.addEdge( "X", "Y", new TransitionEdge( "ELSEWHERE", "NOTHING", DiffType.SUBJECT_ONLY ) );
+        GraphMatchResult after = session.getResult();
+        assertEquals( before + calculator.getInsertionCost(), after.getTotalCost(), 0.0 );
+        assertTrue( session.getReusedComponentCount() > 0 );
+        assertEquals( 0, after.getStatistics().getExpanded() );
+    }
+
+    private void assertFresh( ComparisonSession session )
+    {
+        GraphMatchResult incremental = session.getResult();
+        GraphMatchResult fresh = calculator.computeDetailedEditDistance( automata.getReference(),
+            session.getSubjectGraph() );
+        assertEquals( fresh.getTotalCost(), incremental.getTotalCost(), 0.0 );
+        assertEquals( fresh.getOperations().size(), incremental.getOperations().size() );
+        assertTrue( incremental.isOptimal() );
+    }
+}
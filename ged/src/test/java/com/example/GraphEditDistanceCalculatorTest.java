@@ -0,0 +1,455 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks the calculator against the example automata from {@link GraphFactory}.
+ */
+public class GraphEditDistanceCalculatorTest
+{
+    private static final double EXAMPLE_DISTANCE = 82.0;
+
+    private final Graph<String, TransitionEdge> referenceGraph = GraphFactory.createReferenceGraph();
+    private final Graph<String, TransitionEdge> subjectGraph = GraphFactory.createSubjectGraph();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void computesExampleDistance()
+    {
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        assertEquals( EXAMPLE_DISTANCE, calculator.computeEditDistance( referenceGraph, subjectGraph ), 0.0 );
+    }
+
+    @Test
+    public void operationCostsAddUpToTotal()
+    {
+        GraphMatchResult result = new GraphEditDistanceCalculator()
+            .computeDetailedEditDistance( referenceGraph, subjectGraph );
+        double sum = 0.0;
+        for ( EditOperation op : result.getOperations() )
+        {
+            sum += op.getCost();
+        }
+        assertEquals( EXAMPLE_DISTANCE, result.getTotalCost(), 0.0 );
+        assertEquals( result.getTotalCost(), sum, 0.0 );
+    }
+
+    @Test
+    public void identicalGraphsHaveZeroDistance()
+    {
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        assertEquals( 0.0, calculator.computeEditDistance( referenceGraph, GraphFactory.createReferenceGraph() ), 0.0 );
+    }
+
+    @Test
+    public void fixedOrderBranchingFindsSameDistance()
+    {
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        calculator.setBranchingMode( BranchingMode.FIXED_ORDER );
+        GraphMatchResult result = calculator.computeDetailedEditDistance( referenceGraph, subjectGraph );
+        assertEquals( EXAMPLE_DISTANCE, result.getTotalCost(), 0.0 );
+        assertEquals( 11, result.getOperations().size() );
+    }
+
+    @Test
+    public void assignmentHeuristicAgreesWithUniformCostSearch()
+    {
+        GraphEditDistanceCalculator uniform = new GraphEditDistanceCalculator();
+        uniform.setHeuristic( new ZeroHeuristic() );
+        uniform.setBranchingMode( BranchingMode.FIXED_ORDER );
+        assertEquals( EXAMPLE_DISTANCE, uniform.computeEditDistance( referenceGraph, subjectGraph ), 0.0 );
+    }
+
+    @Test
+    public void costMatrixMatchesCostFunctions()
+    {
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        SearchContext context = allEdgesContext( referenceGraph, subjectGraph );
+        CostMatrix matrix = CostMatrix.build( context, calculator );
+        for ( int r = 0; r < context.getReferenceEdgeCount(); r++ )
+        {
+            for ( int s = 0; s < context.getSubjectEdgeCount(); s++ )
+            {
+                TransitionEdge refEdge = context.getReferenceEdges().get( r );
+                TransitionEdge subjEdge = context.getSubjectEdges().get( s );
+                assertEquals( calculator.edgeSubstitutionCost( referenceGraph, subjectGraph, refEdge, subjEdge ),
+                    matrix.substitution( r, s ), 0.0 );
+                assertEquals( calculator.edgeReassignmentCost( referenceGraph, subjectGraph, refEdge, subjEdge ),
+                    matrix.reassignment( r, s ), 0.0 );
+                assertEquals( calculator.edgeSubstitutionCost( context.getReference(), r, context.getSubject(), s ),
+                    matrix.substitution( r, s ), 0.0 );
+                assertEquals( calculator.edgeReassignmentCost( context.getReference(), r, context.getSubject(), s ),
+                    matrix.reassignment( r, s ), 0.0 );
+            }
+        }
+    }
+
+    @Test
+    public void openListTypesFindSameDistance()
+    {
+        for ( OpenListType type : OpenListType.values() )
+        {
+            GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+            calculator.setOpenListType( type );
+            calculator.setHeuristic( new ZeroHeuristic() );
+            calculator.setBranchingMode( BranchingMode.FIXED_ORDER );
+            assertEquals( type.name(), EXAMPLE_DISTANCE, calculator.computeEditDistance( referenceGraph, subjectGraph ), 0.0 );
+        }
+    }
+
+    @Test
+    public void boundedModesStayWithinTheirGuarantees()
+    {
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        calculator.setHeuristic( new ZeroHeuristic() );
+        calculator.setSearchMode( SearchMode.WEIGHTED );
+        calculator.setWeight( 2.0 );
+        GraphMatchResult weighted = calculator.computeDetailedEditDistance( referenceGraph, subjectGraph );
+        assertTrue( weighted.getTotalCost() <= 2.0 * EXAMPLE_DISTANCE );
+        assertTrue( weighted.getLowerBound() <= EXAMPLE_DISTANCE );
+
+        calculator.setSearchMode( SearchMode.BEAM );
+        calculator.setBeamWidth( 3 );
+        GraphMatchResult beam = calculator.computeDetailedEditDistance( referenceGraph, subjectGraph );
+        assertTrue( beam.getTotalCost() >= EXAMPLE_DISTANCE );
+        assertTrue( beam.getLowerBound() <= EXAMPLE_DISTANCE );
+    }
+
+    @Test
+    public void anytimeSearchReportsGapWhenBudgetRunsOut()
+    {
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        calculator.setHeuristic( new ZeroHeuristic() );
+        calculator.setSearchMode( SearchMode.ANYTIME );
+        calculator.setNodeBudget( 5 );
+        GraphMatchResult result = calculator.computeDetailedEditDistance( referenceGraph, subjectGraph );
+        assertFalse( result.isOptimal() );
+        assertTrue( result.getTotalCost() >= EXAMPLE_DISTANCE );
+        assertTrue( result.getLowerBound() <= EXAMPLE_DISTANCE );
+        assertEquals( result.getTotalCost() - result.getLowerBound(), result.getGap(), 0.0 );
+
+        calculator.setNodeBudget( 0 );
+        GraphMatchResult unbounded = calculator.computeDetailedEditDistance( referenceGraph, subjectGraph );
+        assertTrue( unbounded.isOptimal() );
+        assertEquals( EXAMPLE_DISTANCE, unbounded.getTotalCost(), 0.0 );
+    }
+
+    @Test
+    public void bipartiteEngineAgreesWithSearch()
+    {
+        GraphEditDistanceCalculator bipartite = new GraphEditDistanceCalculator();
+        bipartite.setEngine( Engine.BIPARTITE );
+        GraphMatchResult example = bipartite.computeDetailedEditDistance( referenceGraph, subjectGraph );
+        assertEquals( EXAMPLE_DISTANCE, example.getTotalCost(), 0.0 );
+        assertTrue( example.isOptimal() );
+
+        GraphEditDistanceCalculator search = new GraphEditDistanceCalculator();
+        for ( long seed = 1; seed <= 5; seed++ )
+        {
+            SyntheticAutomata automata = SyntheticAutomata.create( seed, 4, 2, 0.5 );
+            assertEquals( search.computeEditDistance( automata.getReference(), automata.getSubject() ),
+                bipartite.computeEditDistance( automata.getReference(), automata.getSubject() ), 0.0 );
+        }
+    }
+
+    @Test
+    public void branchAndBoundFindsOptimalDistance()
+    {
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        calculator.setEngine( Engine.BRANCH_AND_BOUND );
+        calculator.setHeuristic( new ZeroHeuristic() );
+        GraphMatchResult result = calculator.computeDetailedEditDistance( referenceGraph, subjectGraph );
+        assertEquals( EXAMPLE_DISTANCE, result.getTotalCost(), 0.0 );
+        assertTrue( result.isOptimal() );
+
+        calculator.setHeuristic( new AssignmentHeuristic() );
+        GraphEditDistanceCalculator search = new GraphEditDistanceCalculator();
+        for ( long seed = 1; seed <= 5; seed++ )
+        {
+            SyntheticAutomata automata = SyntheticAutomata.create( seed, 4, 2, 0.5 );
+            assertEquals( search.computeEditDistance( automata.getReference(), automata.getSubject() ),
+                calculator.computeEditDistance( automata.getReference(), automata.getSubject() ), 0.0 );
+        }
+    }
+
+    @Test
+    public void parallelSearchFindsOptimalDistance()
+    {
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        calculator.setEngine( Engine.PARALLEL_A_STAR );
+        calculator.setHeuristic( new ZeroHeuristic() );
+        calculator.setBranchingMode( BranchingMode.FIXED_ORDER );
+        for ( int threads = 1; threads <= 4; threads *= 2 )
+        {
+            calculator.setThreadCount( threads );
+            GraphMatchResult result = calculator.computeDetailedEditDistance( referenceGraph, subjectGraph );
+            assertEquals( EXAMPLE_DISTANCE, result.getTotalCost(), 0.0 );
+            assertTrue( result.isOptimal() );
+        }
+    }
+
+    @Test
+    public void candidatesAreExactlyTheNonDominatedPairs()
+    {
+        CostModel cheapMismatches = new CostModel( 10.0, 10.0, 15.0, 1000.0, 250.0, 2.0 );
+        for ( CostModel model : new CostModel[] { CostModel.DEFAULT, cheapMismatches } )
+        {
+            GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+            calculator.setCostModel( model );
+            SearchContext context = allEdgesContext( referenceGraph, subjectGraph );
+            CostMatrix matrix = CostMatrix.build( context, calculator );
+            for ( int r = 0; r < context.getReferenceEdgeCount(); r++ )
+            {
+                int expected = 0;
+                for ( int s = 0; s < context.getSubjectEdgeCount(); s++ )
+                {
+                    expected += model.isDominated( matrix.pairCost( r, s ) ) ? 0 : 1;
+                }
+                assertEquals( expected, matrix.candidates( r ).length );
+            }
+
+            GraphEditDistanceCalculator uniform = new GraphEditDistanceCalculator();
+            uniform.setCostModel( model );
+            uniform.setHeuristic( new ZeroHeuristic() );
+            uniform.setBranchingMode( BranchingMode.FIXED_ORDER );
+            calculator.setEngine( Engine.BIPARTITE );
+            assertEquals( uniform.computeEditDistance( referenceGraph, subjectGraph ),
+                calculator.computeEditDistance( referenceGraph, subjectGraph ), 0.0 );
+        }
+    }
+
+    @Test
+    public void kernelizationKeepsDistances()
+    {
+        GraphEditDistanceCalculator kernelized = new GraphEditDistanceCalculator();
+        kernelized.setHeuristic( new ZeroHeuristic() );
+        kernelized.setBranchingMode( BranchingMode.FIXED_ORDER );
+        kernelized.setParallelComponents( true );
+        GraphEditDistanceCalculator whole = new GraphEditDistanceCalculator();
+        whole.setKernelization( false );
+        for ( long seed = 1; seed <= 5; seed++ )
+        {
+            SyntheticAutomata automata = SyntheticAutomata.create( seed, 5, 2, 0.5 );
+            GraphMatchResult result = kernelized.computeDetailedEditDistance( automata.getReference(), automata.getSubject() );
+            assertEquals( whole.computeEditDistance( automata.getReference(), automata.getSubject() ), result.getTotalCost(), 0.0 );
+            assertTrue( result.isOptimal() );
+        }
+    }
+
+    @Test
+    public void identicalEdgesAreNotFixedWhenExchangeCostsMore()
+    {
+        // Matching the identical a/y edges leaves a/x against b/y (both labels differ);
+        // crossing them costs two single-letter relabels instead.
+        Graph<String, TransitionEdge> reference = twoEdgeGraph( "a", "y", "a", "x", DiffType.REFERENCE_ONLY );
+        Graph<String, TransitionEdge> subject = twoEdgeGraph( "a", "y", "b", "y", DiffType.SUBJECT_ONLY );
+        assertEquals( 2.0, new GraphEditDistanceCalculator().computeEditDistance( reference, subject ), 0.0 );
+    }
+
+    @Test
+    public void parallelIdenticalEdgesAreSearchedAsClasses()
+    {
+        // Eight interchangeable x/y edges on each side, rewired from B to C, next to
+        // eight u/v edges of which one is gone: without classes, every permutation
+        // of the identical edges would be a separate branch.
+        Graph<String, TransitionEdge> reference = parallelEdgeGraph( "B", 8, 8, DiffType.REFERENCE_ONLY );
+        Graph<String, TransitionEdge> subject = parallelEdgeGraph( "C", 8, 7, DiffType.SUBJECT_ONLY );
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        calculator.setHeuristic( new ZeroHeuristic() );
+        calculator.setKernelization( false );
+        assertEquals( 8 * 2.0 + 10.0, calculator.computeEditDistance( reference, subject ), 0.0 );
+    }
+
+    @Test
+    public void vertexMappingNeverExceedsLiteralDistance()
+    {
+        GraphEditDistanceCalculator mapping = new GraphEditDistanceCalculator();
+        mapping.setEngine( Engine.VERTEX_MAPPING );
+        GraphMatchResult example = mapping.computeDetailedEditDistance( referenceGraph, subjectGraph );
+        assertTrue( example.isOptimal() );
+        assertTrue( example.getTotalCost() <= EXAMPLE_DISTANCE );
+        double sum = 0.0;
+        for ( EditOperation operation : example.getOperations() )
+        {
+            sum += operation.getCost();
+        }
+        assertEquals( example.getTotalCost(), sum, 1e-9 );
+
+        GraphEditDistanceCalculator literal = new GraphEditDistanceCalculator();
+        for ( long seed = 1; seed <= 5; seed++ )
+        {
+            SyntheticAutomata automata = SyntheticAutomata.create( seed, 4, 2, 0.5 );
+            assertTrue( mapping.computeEditDistance( automata.getReference(), automata.getSubject() )
+                <= literal.computeEditDistance( automata.getReference(), automata.getSubject() ) );
+        }
+    }
+
+    @Test
+    public void renamedCopyHasZeroDistanceUnderVertexMapping()
+    {
+        Graph<String, TransitionEdge> reference = parallelEdgeGraph( "B", 3, 2, DiffType.REFERENCE_ONLY );
+        Graph<String, TransitionEdge> subject = GraphTypeBuilder.<String, TransitionEdge>directed()
+            .allowingMultipleEdges( true ).allowingSelfLoops( true ).edgeClass( TransitionEdge.class ).buildGraph();
+        for ( TransitionEdge edge : reference.edgeSet() )
+        {
+            String source = "s" + reference.getEdgeSource( edge );
+            String target = "s" + reference.getEdgeTarget( edge );
+            subject.addVertex( source );
+            subject.addVertex( target );
+            subject.addEdge( source, target, new TransitionEdge( edge.getInput(), edge.getOutput(), DiffType.SUBJECT_ONLY ) );
+        }
+        assertTrue( new GraphEditDistanceCalculator().computeEditDistance( reference, subject ) > 0.0 );
+
+        GraphEditDistanceCalculator mapping = new GraphEditDistanceCalculator();
+        mapping.setEngine( Engine.VERTEX_MAPPING );
+        GraphMatchResult result = mapping.computeDetailedEditDistance( reference, subject );
+        assertEquals( 0.0, result.getTotalCost(), 0.0 );
+        assertEquals( "sA", result.getStateMapping().get( "A" ) );
+        assertEquals( "sB", result.getStateMapping().get( "B" ) );
+    }
+
+    @Test
+    public void vertexMappingKeepsStatesOfCommonEdgesInjective()
+    {
+        Graph<String, TransitionEdge> reference = GraphTypeBuilder.<String, TransitionEdge>directed()
+            .allowingMultipleEdges( true ).allowingSelfLoops( true ).edgeClass( TransitionEdge.class ).buildGraph();
+        reference.addVertex( "S1" );
+        reference.addVertex( "S3" );
+        reference.addEdge( "S1", "S1", new TransitionEdge( "a", "x", DiffType.COMMON ) );
+        reference.addEdge( "S3", "S3", new TransitionEdge( "b", "y", DiffType.REFERENCE_ONLY ) );
+        Graph<String, TransitionEdge> subject = GraphTypeBuilder.<String, TransitionEdge>directed()
+            .allowingMultipleEdges( true ).allowingSelfLoops( true ).edgeClass( TransitionEdge.class ).buildGraph();
+        subject.addVertex( "S1" );
+        subject.addEdge( "S1", "S1", new TransitionEdge( "a", "x", DiffType.COMMON ) );
+        subject.addEdge( "S1", "S1", new TransitionEdge( "b", "y", DiffType.SUBJECT_ONLY ) );
+
+        // S1 keeps its name through the COMMON edge, so S3 cannot be mapped onto S1 as well.
+        GraphEditDistanceCalculator mapping = new GraphEditDistanceCalculator();
+        mapping.setEngine( Engine.VERTEX_MAPPING );
+        GraphMatchResult result = mapping.computeDetailedEditDistance( reference, subject );
+        assertEquals( 2.0, new GraphEditDistanceCalculator().computeEditDistance( reference, subject ), 0.0 );
+        assertEquals( 2.0, result.getTotalCost(), 0.0 );
+        assertFalse( "S1".equals( result.getStateMapping().get( "S3" ) ) );
+    }
+
+    @Test
+    public void detailedResultReportsSearchStatistics()
+    {
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        calculator.setKernelization( false );
+        List<SearchStatistics> samples = new ArrayList<>();
+        calculator.setSearchListener( samples::add );
+        calculator.setProgressInterval( 1 );
+        SearchStatistics statistics = calculator.computeDetailedEditDistance( referenceGraph, subjectGraph )
+            .getStatistics();
+        assertTrue( statistics.getExpanded() > 0 );
+        assertTrue( statistics.getGenerated() >= statistics.getExpanded() );
+        assertTrue( statistics.getCostPairEvaluations() > 0 );
+        assertTrue( statistics.getPhaseNanos( SearchStatistics.Phase.SEARCH ) > 0 );
+        assertEquals( statistics.getExpanded(), samples.size() );
+        assertEquals( samples.size(), samples.get( samples.size() - 1 ).getExpanded() );
+    }
+
+    @Test
+    public void memoryBoundedSearchSpillsAndStaysOptimal() throws Exception
+    {
+        GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+        calculator.setKernelization( false );
+        calculator.setMemoryBudgetBytes( 1 );
+        File spillDirectory = folder.newFolder();
+        calculator.setSpillDirectory( spillDirectory.toPath() );
+        GraphMatchResult result = calculator.computeDetailedEditDistance( referenceGraph, subjectGraph );
+        assertEquals( EXAMPLE_DISTANCE, result.getTotalCost(), 0.0 );
+        assertTrue( result.isOptimal() );
+        assertTrue( result.getStatistics().getSpilledStates() > 0 );
+        double sum = 0.0;
+        for ( EditOperation op : result.getOperations() )
+        {
+            sum += op.getCost();
+        }
+        assertEquals( result.getTotalCost(), sum, 0.0 );
+        // The spill files are gone once the search returns.
+        assertEquals( 0, spillDirectory.list().length );
+    }
+
+    @Test
+    public void snapshotKeepsEdgesAndAdjacency()
+    {
+        GraphSnapshot snapshot = GraphSnapshot.of( referenceGraph );
+        assertEquals( referenceGraph.vertexSet().size(), snapshot.getVertexCount() );
+        assertEquals( referenceGraph.edgeSet().size(), snapshot.getEdgeCount() );
+        for ( int v = 0; v < snapshot.getVertexCount(); v++ )
+        {
+            String name = snapshot.vertexName( v );
+            assertEquals( referenceGraph.outDegreeOf( name ), snapshot.outDegree( v ) );
+            assertEquals( referenceGraph.inDegreeOf( name ), snapshot.inDegree( v ) );
+            for ( int i = 0; i < snapshot.outDegree( v ); i++ )
+            {
+                TransitionEdge edge = snapshot.edge( snapshot.outgoingEdge( v, i ) );
+                assertEquals( name, referenceGraph.getEdgeSource( edge ) );
+            }
+        }
+        for ( int e = 0; e < snapshot.getEdgeCount(); e++ )
+        {
+            TransitionEdge edge = snapshot.edge( e );
+            assertEquals( edge.getInput(), snapshot.label( snapshot.input( e ) ) );
+            assertEquals( edge.getOutput(), snapshot.label( snapshot.output( e ) ) );
+            assertEquals( edge.getType(), snapshot.type( e ) );
+            assertEquals( referenceGraph.getEdgeTarget( edge ), snapshot.vertexName( snapshot.target( e ) ) );
+        }
+    }
+
+    // Context over every edge of both graphs, COMMON ones included.
+    private static SearchContext allEdgesContext( Graph<String, TransitionEdge> reference, Graph<String, TransitionEdge> subject )
+    {
+        GraphSnapshot referenceSnapshot = GraphSnapshot.of( reference );
+        GraphSnapshot subjectSnapshot = GraphSnapshot.of( subject );
+        return new SearchContext( referenceSnapshot, subjectSnapshot,
+            IntStream.range( 0, referenceSnapshot.getEdgeCount() ).toArray(),
+            IntStream.range( 0, subjectSnapshot.getEdgeCount() ).toArray() );
+    }
+
+    private static Graph<String, TransitionEdge> parallelEdgeGraph( String target, int rewired, int kept, DiffType type )
+    {
+        Graph<String, TransitionEdge> graph = GraphTypeBuilder.<String, TransitionEdge>directed()
+            .allowingMultipleEdges( true ).allowingSelfLoops( true ).edgeClass( TransitionEdge.class ).buildGraph();
+        graph.addVertex( "A" );
+        graph.addVertex( "B" );
+        graph.addVertex( "C" );
+        for ( int i = 0; i < rewired; i++ )
+        {
+            graph.addEdge( "A", target, new TransitionEdge( "x", "y", type ) );
+            if ( i < kept )
+            {
+                graph.addEdge( "A", "B", new TransitionEdge( "u", "v", type ) );
+            }
+        }
+        return graph;
+    }
+
+    private static Graph<String, TransitionEdge> twoEdgeGraph( String in1, String out1, String in2, String out2, DiffType type )
+    {
+        Graph<String, TransitionEdge> graph = GraphTypeBuilder.<String, TransitionEdge>directed()
+            .allowingMultipleEdges( true ).allowingSelfLoops( true ).edgeClass( TransitionEdge.class ).buildGraph();
+        graph.addVertex( "A" );
+        graph.addVertex( "B" );
+        graph.addEdge( "A", "B", new TransitionEdge( in1, out1, type ) );
+        graph.addEdge( "A", "B", new TransitionEdge( in2, out2, type ) );
+        return graph;
+    }
+}
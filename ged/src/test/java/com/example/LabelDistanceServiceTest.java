@@ -0,0 +1,66 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.junit.Test;
+
+/**
+ * Checks the bounded distance and the cache of the label distance service.
+ */
+public class LabelDistanceServiceTest
+{
+    @Test
+    public void boundedDistanceAgreesWithLevenshtein()
+    {
+        Random random = new Random( 3 );
+        LevenshteinDistance exact = new LevenshteinDistance();
+        for ( int i = 0; i < 2000; i++ )
+        {
+            String a = randomLabel( random );
+            String b = randomLabel( random );
+            int limit = random.nextInt( 8 );
+            int distance = exact.apply( a, b );
+            assertEquals( distance <= limit ? distance : -1, LabelDistanceService.boundedLevenshtein( a, b, limit ) );
+            assertEquals( distance, LabelDistanceService.boundedLevenshtein( a, b, Integer.MAX_VALUE ) );
+        }
+    }
+
+    @Test
+    public void cachesDistancesWithinCapacity()
+    {
+        LabelDistanceService service = new LabelDistanceService( 2 );
+        String ok = "ROBOT_OK";
+        String sign = "SIGNDATA";
+        String gen = "GEN_CRYPTOGRAM";
+
+        int distance = new LevenshteinDistance().apply( "ROBOT_OK", "SIGNDATA" );
+        assertEquals( 3, service.distance( ok, sign, 2 ) );
+        assertEquals( distance, service.distance( ok, sign ) );
+        assertEquals( distance, service.distance( sign, ok, 2 ) );
+        assertEquals( 1, service.getHitCount() );
+        assertEquals( 2, service.getMissCount() );
+
+        service.distance( ok, gen );
+        service.distance( sign, gen );
+        assertEquals( 2, service.size() );
+        // The least recently used pair was evicted.
+        service.distance( ok, sign );
+        assertEquals( 5, service.getMissCount() );
+        assertTrue( service.getHitRate() > 0.0 );
+    }
+
+    private static String randomLabel( Random random )
+    {
+        StringBuilder label = new StringBuilder();
+        int length = random.nextInt( 10 );
+        for ( int i = 0; i < length; i++ )
+        {
+            label.append( (char) ( 'A' + random.nextInt( 4 ) ) );
+        }
+        return label.toString();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks fingerprints and the memory and disk tiers of the result cache.
+ */
+public class ResultCacheTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final GraphEditDistanceCalculator calculator = new GraphEditDistanceCalculator();
+    private final Graph<String, TransitionEdge> referenceGraph = GraphFactory.createReferenceGraph();
+    private final Graph<String, TransitionEdge> subjectGraph = GraphFactory.createSubjectGraph();
+
+    @Test
+    public void fingerprintIgnoresInsertionOrder()
+    {
+        Graph<String, TransitionEdge> reversed = GraphTypeBuilder
+            .<String, TransitionEdge>directed()
+            .allowingMultipleEdges( true )
+            .allowingSelfLoops( true )
+            .edgeClass( TransitionEdge.class )
+            .buildGraph();
+        List<String> vertices = new ArrayList<>( referenceGraph.vertexSet() );
+        Collections.reverse( vertices );
+        vertices.forEach( reversed::addVertex );
+        List<TransitionEdge> edges = new ArrayList<>( referenceGraph.edgeSet() );
+        Collections.reverse( edges );
+        for ( TransitionEdge edge : edges )
+        {
+            reversed.addEdge( referenceGraph.getEdgeSource( edge ), referenceGraph.getEdgeTarget( edge ),
+                new TransitionEdge( edge.getInput(), edge.getOutput(), edge.getType() ) );
+        }
+
+        GraphFingerprint fingerprint = GraphFingerprint.of( referenceGraph );
+        assertEquals( fingerprint, GraphFingerprint.of( reversed ) );
+        assertEquals( fingerprint, GraphFingerprint.of( GraphSnapshot.of( referenceGraph ) ) );
+        assertNotEquals( fingerprint, GraphFingerprint.of( subjectGraph ) );
+
+        reversed.addEdge( "S1", "S2", new TransitionEdge( "ROBOT_OK", "OK", DiffType.COMMON ) );
+        assertNotEquals( fingerprint, GraphFingerprint.of( reversed ) );
+    }
+
+    @Test
+    public void repeatedComparisonIsServedFromMemoryAndDisk() throws Exception
+    {
+        ResultCache cache = new ResultCache( 16, folder.getRoot().toPath() );
+        GraphMatchResult computed = cache.computeIfAbsent( calculator, referenceGraph, subjectGraph );
+        assertEquals( 1, cache.getMissCount() );
+
+        GraphMatchResult cached = cache.computeIfAbsent( calculator, GraphFactory.createReferenceGraph(),
+            GraphFactory.createSubjectGraph() );
+        assertEquals( 1, cache.getHitCount() );
+        assertEquals( computed.getTotalCost(), cached.getTotalCost(), 0.0 );
+
+        ResultCache restarted = new ResultCache( 16, folder.getRoot().toPath() );
+        GraphMatchResult loaded = restarted.get( ResultCache.key( calculator, referenceGraph, subjectGraph ) );
+        assertEquals( 1, restarted.getDiskHitCount() );
+        assertEquals( computed.getTotalCost(), loaded.getTotalCost(), 0.0 );
+        assertEquals( computed.getOperations().size(), loaded.getOperations().size() );
+        assertEquals( computed.getOperations().get( 0 ).getDescription(), loaded.getOperations().get( 0 ).getDescription() );
+
+        calculator.setCostModel( new CostModel( 5.0, 5.0, 250.0, 1000.0, 250.0, 2.0 ) );
+        assertNull( restarted.get( ResultCache.key( calculator, referenceGraph, subjectGraph ) ) );
+    }
+
+    @Test
+    public void filesOfAnEarlierFormatAreIgnored() throws Exception
+    {
+        calculator.setEngine( Engine.VERTEX_MAPPING );
+        ResultCache cache = new ResultCache( 16, folder.getRoot().toPath() );
+        cache.computeIfAbsent( calculator, referenceGraph, subjectGraph );
+        ResultCache.Key key = ResultCache.key( calculator, referenceGraph, subjectGraph );
+        Path file = folder.getRoot().toPath().resolve( key.getFileName() );
+
+        // Version 1 files may hold non-injective vertex mappings.
+        ByteBuffer bytes = ByteBuffer.wrap( Files.readAllBytes( file ) );
+        bytes.putInt( 4, 1 );
+        Files.write( file, bytes.array() );
+        ResultCache restarted = new ResultCache( 16, folder.getRoot().toPath() );
+        assertNull( restarted.get( key ) );
+        assertEquals( 0, restarted.getDiskHitCount() );
+    }
+
+    @Test
+    public void damagedFilesAreMisses() throws Exception
+    {
+        ResultCache cache = new ResultCache( 16, folder.getRoot().toPath() );
+        cache.computeIfAbsent( calculator, referenceGraph, subjectGraph );
+        ResultCache.Key key = ResultCache.key( calculator, referenceGraph, subjectGraph );
+        Path file = folder.getRoot().toPath().resolve( key.getFileName() );
+        byte[] written = Files.readAllBytes( file );
+
+        Files.write( file, Arrays.copyOf( written, written.length / 2 ) );
+        assertNull( new ResultCache( 16, folder.getRoot().toPath() ).get( key ) );
+
+        // Magic, version, total cost, optimality, lower bound and operation count precede the first type.
+        byte[] badType = written.clone();
+        badType[29] = 99;
+        Files.write( file, badType );
+        ResultCache restarted = new ResultCache( 16, folder.getRoot().toPath() );
+        assertNull( restarted.get( key ) );
+        assertEquals( 1, restarted.getMissCount() );
+    }
+
+    @Test
+    public void failedWriteLeavesNoTemporaryFile() throws Exception
+    {
+        ResultCache cache = new ResultCache( 16, folder.getRoot().toPath() );
+        ResultCache.Key key = ResultCache.key( calculator, referenceGraph, subjectGraph );
+        // A non-empty directory in the result's place makes the final move fail.
+        Path blocker = Files.createDirectory( folder.getRoot().toPath().resolve( key.getFileName() ) );
+        Files.createFile( blocker.resolve( "child" ) );
+        GraphMatchResult result = calculator.computeDetailedEditDistance( referenceGraph, subjectGraph );
+        try
+        {
+            cache.put( key, result );
+            fail( "Expected the write to fail" );
+        }
+        catch ( UncheckedIOException e )
+        {
+            assertArrayEquals( new String[] { key.getFileName() }, folder.getRoot().list() );
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks the growth of mapped paged arrays and the cleanup of spill files.
+ */
+public class SpillDirectoryTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void mappedPagesGrowAndKeepTheirValues()
+    {
+        File parent = folder.getRoot();
+        try ( SpillDirectory spill = new SpillDirectory( parent.toPath() ) )
+        {
+            PagedLongs longs = PagedLongs.mapped( 4, 6, spill );
+            assertEquals( 4, longs.capacity() );
+            for ( long i = 0; i < 200; i++ )
+            {
+                longs.ensureCapacity( i + 1 );
+                longs.set( i, 3 * i );
+            }
+            for ( long i = 0; i < 200; i++ )
+            {
+                assertEquals( 3 * i, longs.get( i ) );
+            }
+            // The single page doubled up to 64 longs, then three more pages were added.
+            assertEquals( 256, longs.capacity() );
+            assertEquals( 8 * 256, spill.getMappedBytes() );
+            assertEquals( 4, parent.listFiles()[0].list().length );
+        }
+    }
+
+    @Test
+    public void closeDeletesEveryFile()
+    {
+        File parent = folder.getRoot();
+        SpillDirectory spill = new SpillDirectory( parent.toPath() );
+        PagedLongs.mapped( 1000, 8, spill ).set( 999, 1 );
+        PagedLongs released = PagedLongs.mapped( 10, 8, spill );
+        released.release();
+        assertEquals( 4, parent.listFiles()[0].list().length );
+
+        spill.close();
+        assertEquals( 0, spill.getMappedBytes() );
+        assertEquals( 0, parent.list().length );
+    }
+}
@@ -0,0 +1,94 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.jgrapht.Graph;
+import org.jgrapht.graph.builder.GraphTypeBuilder;
+
+/**
+ * Seeded random Mealy machine pairs for tests and benchmarks: a complete reference
+ * machine (one transition per state and input) and a subject in which a share of
+ * the transitions is changed. Changed transitions appear as REFERENCE_ONLY in the
+ * reference; their replacement, if any, appears as SUBJECT_ONLY in the subject.
+ * Everything else is COMMON. A changed transition is relabeled (same endpoints,
+ * other output), rewired (same labels, other target) or removed.
+ */
+public class SyntheticAutomata {
+
+    private final Graph<String, TransitionEdge> reference;
+    private final Graph<String, TransitionEdge> subject;
+
+    private SyntheticAutomata(Graph<String, TransitionEdge> reference, Graph<String, TransitionEdge> subject) {
+        this.reference = reference;
+        this.subject = subject;
+    }
+
+    // Changed transitions are relabeled or rewired with equal probability, never removed.
+    public static SyntheticAutomata create(long seed, int states, int alphabet, double changedShare) {
+        return create(seed, states, alphabet, changedShare, 0.5, 0.5);
+    }
+
+    /**
+     * A pair of machines over the given number of states and inputs. Of the
+     * changed transitions (changedShare of all), relabelShare are relabeled,
+     * rewireShare are rewired and the rest are removed.
+     */
+    public static SyntheticAutomata create(long seed, int states, int alphabet, double changedShare,
+                                           double relabelShare, double rewireShare) {
+        if (relabelShare < 0 || rewireShare < 0 || relabelShare + rewireShare > 1.0) {
+            throw new IllegalArgumentException("Invalid relabel/rewire shares: " + relabelShare + ", " + rewireShare);
+        }
+        Random random = new Random(seed);
+        Graph<String, TransitionEdge> reference = newGraph();
+        Graph<String, TransitionEdge> subject = newGraph();
+        List<String> names = new ArrayList<>();
+        for (int i = 1; i <= states; i++) {
+            names.add("S" + i);
+            reference.addVertex("S" + i);
+            subject.addVertex("S" + i);
+        }
+        for (String source : names) {
+            for (int in = 0; in < alphabet; in++) {
+                String input = "IN_" + in;
+                String target = names.get(random.nextInt(states));
+                String output = "OUT_" + random.nextInt(alphabet);
+                if (random.nextDouble() >= changedShare) {
+                    reference.addEdge(source, target, new TransitionEdge(input, output, DiffType.COMMON));
+                    subject.addEdge(source, target, new TransitionEdge(input, output, DiffType.COMMON));
+                    continue;
+                }
+                reference.addEdge(source, target, new TransitionEdge(input, output, DiffType.REFERENCE_ONLY));
+                double change = random.nextDouble();
+                if (change < relabelShare) {
+                    // Relabel: same endpoints, different output.
+                    String changed = "OUT_" + ((Integer.parseInt(output.substring(4)) + 1) % Math.max(2, alphabet));
+                    subject.addEdge(source, target, new TransitionEdge(input, changed, DiffType.SUBJECT_ONLY));
+                } else if (change < relabelShare + rewireShare) {
+                    // Rewire: same labels, different target.
+                    String changed = names.get((names.indexOf(target) + 1) % states);
+                    subject.addEdge(source, changed, new TransitionEdge(input, output, DiffType.SUBJECT_ONLY));
+                }
+            }
+        }
+        return new SyntheticAutomata(reference, subject);
+    }
+
+    private static Graph<String, TransitionEdge> newGraph() {
+        return GraphTypeBuilder
+            .<String, TransitionEdge>directed()
+            .allowingMultipleEdges(true)
+            .allowingSelfLoops(true)
+            .edgeClass(TransitionEdge.class)
+            .buildGraph();
+    }
+
+    public Graph<String, TransitionEdge> getReference() {
+        return reference;
+    }
+
+    public Graph<String, TransitionEdge> getSubject() {
+        return subject;
+    }
+}